@@ -0,0 +1,15 @@
+package com.microservices.common.commands;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.axonframework.modelling.command.TargetAggregateIdentifier;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FulfillInventoryCommand {
+
+  @TargetAggregateIdentifier
+  private String orderId;
+}
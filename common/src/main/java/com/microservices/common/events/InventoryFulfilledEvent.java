@@ -0,0 +1,15 @@
+package com.microservices.common.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class InventoryFulfilledEvent {
+
+  private String orderId;
+}
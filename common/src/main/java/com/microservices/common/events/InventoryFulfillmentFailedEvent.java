@@ -0,0 +1,16 @@
+package com.microservices.common.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class InventoryFulfillmentFailedEvent {
+
+  private String orderId;
+  private String reason;
+}
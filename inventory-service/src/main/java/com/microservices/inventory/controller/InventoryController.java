@@ -1,5 +1,9 @@
 package com.microservices.inventory.controller;
 
+import com.microservices.inventory.dto.BatchInventoryCheckRequest;
+import com.microservices.inventory.dto.BatchInventoryResponse;
+import com.microservices.inventory.dto.BulkReservationRequest;
+import com.microservices.inventory.dto.BulkReservationResponse;
 import com.microservices.inventory.dto.CreateProductRequest;
 import com.microservices.inventory.dto.InventoryResponse;
 import com.microservices.inventory.dto.ProductResponse;
@@ -41,6 +45,15 @@ public class InventoryController {
     return ResponseEntity.ok(response);
   }
 
+  @PostMapping("/check/batch")
+  public ResponseEntity<BatchInventoryResponse> checkInventoryBatch(
+      @Valid @RequestBody BatchInventoryCheckRequest request) {
+    log.info("Checking inventory in batch for {} items", request.getItems().size());
+
+    BatchInventoryResponse response = inventoryService.checkInventoryBatch(request);
+    return ResponseEntity.ok(response);
+  }
+
   @PostMapping("/products")
   public ResponseEntity<ProductResponse> createProduct(
       @Valid @RequestBody CreateProductRequest request) {
@@ -110,6 +123,33 @@ public class InventoryController {
     return ResponseEntity.status(HttpStatus.CREATED).build();
   }
 
+  // Reserves every line of an order in one transaction; nothing is reserved if any line fails
+  @PostMapping("/reservations/bulk")
+  public ResponseEntity<BulkReservationResponse> reserveStockBulk(
+      @Valid @RequestBody BulkReservationRequest request) {
+    log.info("Reserving stock in bulk for order: {}, items: {}", request.getOrderId(),
+        request.getItems().size());
+
+    BulkReservationResponse response = inventoryService.reserveStockBulk(request);
+    return ResponseEntity.ok(response);
+  }
+
+  @DeleteMapping("/reservations/bulk/{orderId}")
+  public ResponseEntity<Void> releaseReservations(@PathVariable String orderId) {
+    log.info("Releasing reservations for order: {}", orderId);
+
+    inventoryService.releaseReservations(orderId);
+    return ResponseEntity.noContent().build();
+  }
+
+  @PostMapping("/reservations/bulk/{orderId}/fulfill")
+  public ResponseEntity<Void> fulfillReservations(@PathVariable String orderId) {
+    log.info("Fulfilling reservations for order: {}", orderId);
+
+    inventoryService.fulfillReservations(orderId);
+    return ResponseEntity.noContent().build();
+  }
+
   @DeleteMapping("/reservations/order/{orderId}/product/{productId}")
   public ResponseEntity<Void> releaseReservation(
       @PathVariable Long orderId,
@@ -0,0 +1,22 @@
+package com.microservices.inventory.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchInventoryResponse {
+
+  // One entry per requested line, in request order
+  private List<InventoryResponse> items;
+
+  // Requested products that do not exist; they have no entry in items
+  private List<Long> missingProductIds;
+
+  private boolean allAvailable;
+}
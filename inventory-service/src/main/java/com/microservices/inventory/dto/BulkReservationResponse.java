@@ -0,0 +1,42 @@
+package com.microservices.inventory.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkReservationResponse {
+
+  private String orderId;
+
+  // Either every line of the order is reserved or none is
+  private boolean reserved;
+
+  // The order was released before this reservation arrived, so nothing is reserved for it
+  private boolean released;
+
+  // One entry per reserved product; empty when nothing was reserved
+  private List<ReservedItem> items;
+
+  // Products without enough available stock
+  private List<Long> unavailableProductIds;
+
+  // Requested products that do not exist
+  private List<Long> missingProductIds;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class ReservedItem {
+
+    private Long productId;
+    private Integer quantity;
+    private Long reservationId;
+  }
+}
@@ -0,0 +1,30 @@
+package com.microservices.inventory.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+// Tombstone of a released saga order, so a reservation arriving after its release is refused
+@Entity
+@Table(name = "released_orders")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReleasedOrder {
+
+  @Id
+  @Column(name = "order_reference", length = 64)
+  private String orderReference;
+
+  @CreationTimestamp
+  @Column(name = "released_at", nullable = false, updatable = false)
+  private LocalDateTime releasedAt;
+}
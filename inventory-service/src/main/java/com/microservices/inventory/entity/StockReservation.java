@@ -34,9 +34,13 @@ public class StockReservation {
   @JoinColumn(name = "product_id", nullable = false)
   private Product product;
 
-  @Column(name = "order_id", nullable = false)
+  @Column(name = "order_id")
   private Long orderId;
 
+  // Saga orders are identified by a string id; set instead of orderId for bulk reservations
+  @Column(name = "order_reference", length = 64)
+  private String orderReference;
+
   @Column(nullable = false)
   private Integer quantity;
 
@@ -44,6 +44,21 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(error);
   }
 
+  @ExceptionHandler(ReservationNotActiveException.class)
+  public ResponseEntity<ErrorResponse> handleReservationNotActiveException(
+      ReservationNotActiveException e) {
+    log.error("Reservation not active: {}", e.getMessage());
+
+    ErrorResponse error = ErrorResponse.builder()
+        .timestamp(LocalDateTime.now())
+        .status(HttpStatus.CONFLICT.value())
+        .error("Reservation Not Active")
+        .message(e.getMessage())
+        .build();
+
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+  }
+
   @ExceptionHandler(IllegalArgumentException.class)
   public ResponseEntity<ErrorResponse> handleIllegalArgumentException(IllegalArgumentException e) {
     log.error("Validation error: {}", e.getMessage());
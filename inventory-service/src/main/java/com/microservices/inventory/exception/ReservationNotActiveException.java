@@ -0,0 +1,8 @@
+package com.microservices.inventory.exception;
+
+public class ReservationNotActiveException extends RuntimeException {
+
+  public ReservationNotActiveException(String message) {
+    super(message);
+  }
+}
@@ -1,9 +1,12 @@
 package com.microservices.inventory.repository;
 
 import com.microservices.inventory.entity.Product;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -29,5 +32,13 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
   @Query("SELECT p FROM Product p WHERE p.status = 'ACTIVE' AND p.quantity - p.reservedQuantity > 0")
   List<Product> findActiveProductsInStock();
 
+  @Query("SELECT p FROM Product p WHERE p.id IN :ids")
+  List<Product> findAllByIdIn(@Param("ids") Collection<Long> ids);
+
+  // Rows are locked in id order, so concurrent bulk reservations cannot deadlock each other
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+  List<Product> findAllByIdInForUpdate(@Param("ids") Collection<Long> ids);
+
   boolean existsBySku(String sku);
 }
\ No newline at end of file
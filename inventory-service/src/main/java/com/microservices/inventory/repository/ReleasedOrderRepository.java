@@ -0,0 +1,23 @@
+package com.microservices.inventory.repository;
+
+import com.microservices.inventory.entity.ReleasedOrder;
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReleasedOrderRepository extends JpaRepository<ReleasedOrder, String> {
+
+  // Reserve, release and fulfil of one order take this lock first, so a release cannot slip
+  // between a reservation's tombstone check and its insert. Held until the transaction ends.
+  @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtext(:orderReference))) "
+      + "AS order_lock", nativeQuery = true)
+  Integer lockOrderReference(@Param("orderReference") String orderReference);
+
+  @Modifying
+  @Query("DELETE FROM ReleasedOrder r WHERE r.releasedAt < :cutoff")
+  int deleteReleasedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
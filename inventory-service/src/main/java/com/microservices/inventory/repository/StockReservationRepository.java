@@ -1,10 +1,12 @@
 package com.microservices.inventory.repository;
 
 import com.microservices.inventory.entity.StockReservation;
+import jakarta.persistence.LockModeType;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -20,9 +22,19 @@ public interface StockReservationRepository extends JpaRepository<StockReservati
 
   Optional<StockReservation> findByOrderIdAndProductId(Long orderId, Long productId);
 
+  List<StockReservation> findByOrderReference(String orderReference);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<StockReservation> findByOrderReferenceAndStatus(String orderReference,
+      StockReservation.ReservationStatus status);
+
   @Query("SELECT r FROM StockReservation r WHERE r.status = 'ACTIVE' AND r.expiresAt < :now")
   List<StockReservation> findExpiredReservations(@Param("now") LocalDateTime now);
 
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT r FROM StockReservation r WHERE r.id = :id AND r.status = 'ACTIVE'")
+  Optional<StockReservation> findActiveByIdForUpdate(@Param("id") Long id);
+
   @Query("SELECT SUM(r.quantity) FROM StockReservation r WHERE r.product.id = :productId AND r.status = 'ACTIVE'")
   Integer getTotalReservedQuantity(@Param("productId") Long productId);
 }
\ No newline at end of file
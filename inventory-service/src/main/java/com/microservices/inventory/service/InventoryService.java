@@ -1,5 +1,9 @@
 package com.microservices.inventory.service;
 
+import com.microservices.inventory.dto.BatchInventoryCheckRequest;
+import com.microservices.inventory.dto.BatchInventoryResponse;
+import com.microservices.inventory.dto.BulkReservationRequest;
+import com.microservices.inventory.dto.BulkReservationResponse;
 import com.microservices.inventory.dto.CreateProductRequest;
 import com.microservices.inventory.dto.InventoryResponse;
 import com.microservices.inventory.dto.ProductResponse;
@@ -8,14 +12,25 @@ import com.microservices.inventory.dto.StockAdjustmentRequest;
 import com.microservices.inventory.dto.UpdateProductRequest;
 import com.microservices.inventory.entity.InventoryTransaction;
 import com.microservices.inventory.entity.Product;
+import com.microservices.inventory.entity.ReleasedOrder;
 import com.microservices.inventory.entity.StockReservation;
 import com.microservices.inventory.exception.InsufficientStockException;
 import com.microservices.inventory.exception.ProductNotFoundException;
+import com.microservices.inventory.exception.ReservationNotActiveException;
 import com.microservices.inventory.repository.InventoryTransactionRepository;
 import com.microservices.inventory.repository.ProductRepository;
+import com.microservices.inventory.repository.ReleasedOrderRepository;
 import com.microservices.inventory.repository.StockReservationRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,9 +42,13 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class InventoryService {
 
+  private static final EnumSet<StockReservation.ReservationStatus> RELEASED = EnumSet.of(
+      StockReservation.ReservationStatus.CANCELLED, StockReservation.ReservationStatus.EXPIRED);
+
   private final ProductRepository productRepository;
   private final InventoryTransactionRepository transactionRepository;
   private final StockReservationRepository reservationRepository;
+  private final ReleasedOrderRepository releasedOrderRepository;
 
   @Transactional(readOnly = true)
   public InventoryResponse checkInventory(Long productId, Integer quantity) {
@@ -49,6 +68,52 @@ public class InventoryService {
         .build();
   }
 
+  @Transactional(readOnly = true)
+  public BatchInventoryResponse checkInventoryBatch(BatchInventoryCheckRequest request) {
+    log.info("Checking inventory for {} items in batch", request.getItems().size());
+
+    // Lines for the same product must fit into its stock together
+    Map<Long, Integer> requestedByProduct = new LinkedHashMap<>();
+    for (BatchInventoryCheckRequest.Item item : request.getItems()) {
+      requestedByProduct.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+    }
+
+    Map<Long, Product> products = productRepository
+        .findAllByIdIn(new ArrayList<>(requestedByProduct.keySet())).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<InventoryResponse> results = new ArrayList<>(request.getItems().size());
+    Set<Long> missingProductIds = new LinkedHashSet<>();
+
+    for (BatchInventoryCheckRequest.Item item : request.getItems()) {
+      Product product = products.get(item.getProductId());
+      if (product == null) {
+        missingProductIds.add(item.getProductId());
+        continue;
+      }
+
+      results.add(InventoryResponse.builder()
+          .productId(product.getId())
+          .productName(product.getName())
+          .availableQuantity(product.getAvailableQuantity())
+          .available(product.isAvailable(requestedByProduct.get(product.getId())))
+          .price(product.getPrice())
+          .build());
+    }
+
+    boolean allAvailable = missingProductIds.isEmpty()
+        && results.stream().allMatch(InventoryResponse::isAvailable);
+
+    log.info("Batch inventory check completed. Found: {}, missing: {}, all available: {}",
+        results.size(), missingProductIds.size(), allAvailable);
+
+    return BatchInventoryResponse.builder()
+        .items(results)
+        .missingProductIds(new ArrayList<>(missingProductIds))
+        .allAvailable(allAvailable)
+        .build();
+  }
+
   @Transactional
   public ProductResponse createProduct(CreateProductRequest request) {
     log.info("Creating product with SKU: {}", request.getSku());
@@ -242,6 +307,221 @@ public class InventoryService {
         request.getOrderId());
   }
 
+  @Transactional
+  public BulkReservationResponse reserveStockBulk(BulkReservationRequest request) {
+    log.info("Reserving stock in bulk for order: {}, items: {}", request.getOrderId(),
+        request.getItems().size());
+
+    // A retry of the same order waits for the first attempt and then finds its reservations
+    // instead of reserving twice; a release of the order waits for the reservation or wins
+    releasedOrderRepository.lockOrderReference(request.getOrderId());
+
+    if (releasedOrderRepository.existsById(request.getOrderId())) {
+      log.warn("Bulk reservation rejected for order: {}, it was already released",
+          request.getOrderId());
+      return BulkReservationResponse.builder()
+          .orderId(request.getOrderId())
+          .reserved(false)
+          .released(true)
+          .items(List.of())
+          .unavailableProductIds(List.of())
+          .missingProductIds(List.of())
+          .build();
+    }
+
+    List<StockReservation> existing =
+        reservationRepository.findByOrderReference(request.getOrderId());
+    if (!existing.isEmpty()) {
+      log.info("Order {} already has {} reservations", request.getOrderId(), existing.size());
+      return mapToBulkReservationResponse(request.getOrderId(), existing);
+    }
+
+    // One line per product, in id order like the row locks below
+    Map<Long, Integer> quantities = request.getItems().stream()
+        .collect(Collectors.toMap(BulkReservationRequest.Item::getProductId,
+            BulkReservationRequest.Item::getQuantity, Integer::sum, TreeMap::new));
+
+    Map<Long, Product> products = productRepository.findAllByIdInForUpdate(quantities.keySet())
+        .stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+    List<Long> missingProductIds = new ArrayList<>();
+    List<Long> unavailableProductIds = new ArrayList<>();
+    quantities.forEach((productId, quantity) -> {
+      Product product = products.get(productId);
+      if (product == null) {
+        missingProductIds.add(productId);
+      } else if (!product.isAvailable(quantity)) {
+        unavailableProductIds.add(productId);
+      }
+    });
+
+    if (!missingProductIds.isEmpty() || !unavailableProductIds.isEmpty()) {
+      log.warn("Bulk reservation rejected for order: {}, unavailable: {}, missing: {}",
+          request.getOrderId(), unavailableProductIds, missingProductIds);
+      return BulkReservationResponse.builder()
+          .orderId(request.getOrderId())
+          .reserved(false)
+          .items(List.of())
+          .unavailableProductIds(unavailableProductIds)
+          .missingProductIds(missingProductIds)
+          .build();
+    }
+
+    int expirationMinutes =
+        request.getExpirationMinutes() != null ? request.getExpirationMinutes() : 15;
+    LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(expirationMinutes);
+
+    List<StockReservation> reservations = new ArrayList<>(quantities.size());
+    quantities.forEach((productId, quantity) -> {
+      Product product = products.get(productId);
+      product.setReservedQuantity(product.getReservedQuantity() + quantity);
+
+      reservations.add(StockReservation.builder()
+          .product(product)
+          .orderReference(request.getOrderId())
+          .quantity(quantity)
+          .status(StockReservation.ReservationStatus.ACTIVE)
+          .expiresAt(expiresAt)
+          .build());
+
+      createTransaction(product, InventoryTransaction.TransactionType.RESERVE, quantity,
+          product.getQuantity(), product.getQuantity(), null, "ORDER",
+          "Stock reserved for order " + request.getOrderId(), "SYSTEM");
+    });
+
+    reservationRepository.saveAll(reservations);
+
+    log.info("Successfully reserved {} products for order: {}", reservations.size(),
+        request.getOrderId());
+    return mapToBulkReservationResponse(request.getOrderId(), reservations);
+  }
+
+  @Transactional
+  public int releaseReservations(String orderReference) {
+    log.info("Releasing reservations for order: {}", orderReference);
+
+    releasedOrderRepository.lockOrderReference(orderReference);
+    // Also written when nothing is reserved yet, so a reservation arriving late is refused
+    if (!releasedOrderRepository.existsById(orderReference)) {
+      releasedOrderRepository.save(
+          ReleasedOrder.builder().orderReference(orderReference).build());
+    }
+
+    List<StockReservation> reservations = reservationRepository.findByOrderReferenceAndStatus(
+        orderReference, StockReservation.ReservationStatus.ACTIVE);
+    if (reservations.isEmpty()) {
+      log.info("No active reservations for order: {}", orderReference);
+      return 0;
+    }
+
+    returnToStock(reservations, StockReservation.ReservationStatus.CANCELLED,
+        "Reservation released for order " + orderReference);
+
+    log.info("Successfully released {} reservations for order: {}", reservations.size(),
+        orderReference);
+    return reservations.size();
+  }
+
+  @Transactional
+  public int fulfillReservations(String orderReference) {
+    log.info("Fulfilling reservations for order: {}", orderReference);
+
+    releasedOrderRepository.lockOrderReference(orderReference);
+    List<StockReservation> reservations = reservationRepository.findByOrderReferenceAndStatus(
+        orderReference, StockReservation.ReservationStatus.ACTIVE);
+    if (reservations.isEmpty()) {
+      // A retried fulfil finds the order already shipped; expired or released stock is gone
+      boolean fulfilled = reservationRepository.findByOrderReference(orderReference).stream()
+          .anyMatch(reservation ->
+              reservation.getStatus() == StockReservation.ReservationStatus.FULFILLED);
+      if (!fulfilled) {
+        throw new ReservationNotActiveException(
+            "No active or fulfilled reservations for order: " + orderReference);
+      }
+      log.info("Reservations of order {} are already fulfilled", orderReference);
+      return 0;
+    }
+
+    Map<Long, Product> products = lockProducts(reservations);
+    LocalDateTime fulfilledAt = LocalDateTime.now();
+    for (StockReservation reservation : reservations) {
+      Product product = products.get(reservation.getProduct().getId());
+      int previousQuantity = product.getQuantity();
+      product.setQuantity(previousQuantity - reservation.getQuantity());
+      product.setReservedQuantity(product.getReservedQuantity() - reservation.getQuantity());
+      if (product.getAvailableQuantity() <= 0) {
+        product.setStatus(Product.ProductStatus.OUT_OF_STOCK);
+      }
+
+      reservation.setStatus(StockReservation.ReservationStatus.FULFILLED);
+      reservation.setFulfilledAt(fulfilledAt);
+
+      createTransaction(product, InventoryTransaction.TransactionType.FULFILL,
+          reservation.getQuantity(), previousQuantity, product.getQuantity(), null, "ORDER",
+          "Order fulfilled " + orderReference, "SYSTEM");
+    }
+
+    log.info("Successfully fulfilled {} reservations for order: {}", reservations.size(),
+        orderReference);
+    return reservations.size();
+  }
+
+  // Expires the order's reservations together, so a fulfil never sees half of them
+  @Transactional
+  public int expireReservations(String orderReference, LocalDateTime now) {
+    releasedOrderRepository.lockOrderReference(orderReference);
+    List<StockReservation> reservations = reservationRepository.findByOrderReferenceAndStatus(
+        orderReference, StockReservation.ReservationStatus.ACTIVE).stream()
+        .filter(reservation -> reservation.getExpiresAt().isBefore(now))
+        .collect(Collectors.toList());
+    if (!reservations.isEmpty()) {
+      returnToStock(reservations, StockReservation.ReservationStatus.EXPIRED,
+          "Reservation expired for order " + orderReference);
+    }
+    return reservations.size();
+  }
+
+  @Transactional
+  public int expireReservation(Long reservationId, LocalDateTime now) {
+    return reservationRepository.findActiveByIdForUpdate(reservationId)
+        .filter(reservation -> reservation.getExpiresAt().isBefore(now))
+        .map(reservation -> {
+          returnToStock(List.of(reservation), StockReservation.ReservationStatus.EXPIRED,
+              "Reservation expired");
+          return 1;
+        })
+        .orElse(0);
+  }
+
+  @Transactional
+  public int purgeReleasedOrders(LocalDateTime cutoff) {
+    return releasedOrderRepository.deleteReleasedBefore(cutoff);
+  }
+
+  // Gives reserved stock back; the reservations must already be locked by the caller
+  private void returnToStock(List<StockReservation> reservations,
+      StockReservation.ReservationStatus status, String notes) {
+    Map<Long, Product> products = lockProducts(reservations);
+    for (StockReservation reservation : reservations) {
+      Product product = products.get(reservation.getProduct().getId());
+      product.setReservedQuantity(product.getReservedQuantity() - reservation.getQuantity());
+      reservation.setStatus(status);
+
+      createTransaction(product, InventoryTransaction.TransactionType.RELEASE,
+          reservation.getQuantity(), product.getQuantity(), product.getQuantity(),
+          reservation.getOrderId(), "ORDER", notes, "SYSTEM");
+    }
+  }
+
+  private Map<Long, Product> lockProducts(List<StockReservation> reservations) {
+    List<Long> productIds = reservations.stream()
+        .map(reservation -> reservation.getProduct().getId())
+        .collect(Collectors.toList());
+    return productRepository.findAllByIdInForUpdate(productIds).stream()
+        .collect(Collectors.toMap(Product::getId, Function.identity()));
+  }
+
   @Transactional
   public void releaseReservation(Long orderId, Long productId) {
     log.info("Releasing reservation for order ID: {}, product ID: {}", orderId, productId);
@@ -335,6 +615,27 @@ public class InventoryService {
     transactionRepository.save(transaction);
   }
 
+  // Released reservations no longer count; a fully released order reads as not reserved
+  private BulkReservationResponse mapToBulkReservationResponse(String orderId,
+      List<StockReservation> reservations) {
+    List<BulkReservationResponse.ReservedItem> items = reservations.stream()
+        .filter(reservation -> !RELEASED.contains(reservation.getStatus()))
+        .map(reservation -> BulkReservationResponse.ReservedItem.builder()
+            .productId(reservation.getProduct().getId())
+            .quantity(reservation.getQuantity())
+            .reservationId(reservation.getId())
+            .build())
+        .collect(Collectors.toList());
+
+    return BulkReservationResponse.builder()
+        .orderId(orderId)
+        .reserved(!items.isEmpty())
+        .items(items)
+        .unavailableProductIds(List.of())
+        .missingProductIds(List.of())
+        .build();
+  }
+
   private ProductResponse mapToProductResponse(Product product) {
     return ProductResponse.builder()
         .id(product.getId())
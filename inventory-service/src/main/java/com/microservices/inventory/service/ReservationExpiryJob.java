@@ -0,0 +1,77 @@
+package com.microservices.inventory.service;
+
+import com.microservices.inventory.entity.StockReservation;
+import com.microservices.inventory.repository.StockReservationRepository;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Gives the stock of reservations past their {@code expiresAt} back, for orders whose saga never
+ * fulfilled or released them, and drops tombstones of released orders once no late reservation
+ * can arrive anymore.
+ */
+@Component
+@Slf4j
+public class ReservationExpiryJob {
+
+  private final InventoryService inventoryService;
+  private final StockReservationRepository reservationRepository;
+  private final Duration releasedRetention;
+
+  public ReservationExpiryJob(InventoryService inventoryService,
+      StockReservationRepository reservationRepository,
+      @Value("${inventory.reservations.released-retention:7d}") Duration releasedRetention) {
+    this.inventoryService = inventoryService;
+    this.reservationRepository = reservationRepository;
+    this.releasedRetention = releasedRetention;
+  }
+
+  @Scheduled(fixedDelayString = "${inventory.reservations.expiry-interval-ms:60000}")
+  public void expireReservations() {
+    try {
+      LocalDateTime now = LocalDateTime.now();
+      List<StockReservation> expired = reservationRepository.findExpiredReservations(now);
+      if (expired.isEmpty()) {
+        return;
+      }
+
+      // Bulk reservations expire per order, single-product ones one by one
+      Set<String> orderReferences = new LinkedHashSet<>();
+      int count = 0;
+      for (StockReservation reservation : expired) {
+        if (reservation.getOrderReference() != null) {
+          orderReferences.add(reservation.getOrderReference());
+        } else {
+          count += inventoryService.expireReservation(reservation.getId(), now);
+        }
+      }
+      for (String orderReference : orderReferences) {
+        count += inventoryService.expireReservations(orderReference, now);
+      }
+
+      log.info("Expired {} stock reservations", count);
+    } catch (Exception e) {
+      log.warn("Failed to expire stock reservations: {}", e.getMessage());
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${inventory.reservations.purge-interval-ms:3600000}")
+  public void purgeReleasedOrders() {
+    try {
+      int purged = inventoryService.purgeReleasedOrders(
+          LocalDateTime.now().minus(releasedRetention));
+      if (purged > 0) {
+        log.info("Purged {} released order tombstones", purged);
+      }
+    } catch (Exception e) {
+      log.warn("Failed to purge released order tombstones: {}", e.getMessage());
+    }
+  }
+}
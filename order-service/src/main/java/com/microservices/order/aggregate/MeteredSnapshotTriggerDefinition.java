@@ -0,0 +1,98 @@
+package com.microservices.order.aggregate;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventsourcing.SnapshotTrigger;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+
+/**
+ * Wraps a snapshot trigger definition to time aggregate loads. Triggers are prepared right before
+ * the repository reads the event stream and told when sourcing finishes, so they see the whole
+ * load. A load counts as snapshotted when its first message is a snapshot of the aggregate itself.
+ */
+public class MeteredSnapshotTriggerDefinition implements SnapshotTriggerDefinition {
+
+  private final SnapshotTriggerDefinition delegate;
+  private final MeterRegistry meterRegistry;
+
+  public MeteredSnapshotTriggerDefinition(SnapshotTriggerDefinition delegate,
+      MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public SnapshotTrigger prepareTrigger(Class<?> aggregateType) {
+    return new MeteredTrigger(delegate.prepareTrigger(aggregateType), aggregateType, this);
+  }
+
+  @Override
+  public SnapshotTrigger reconfigure(Class<?> aggregateType, SnapshotTrigger trigger) {
+    if (trigger instanceof MeteredTrigger metered) {
+      metered.definition = this;
+      metered.delegate = delegate.reconfigure(aggregateType, metered.delegate);
+      return metered;
+    }
+    return delegate.reconfigure(aggregateType, trigger);
+  }
+
+  private Timer loadTimer(Class<?> aggregateType, boolean fromSnapshot) {
+    return Timer.builder("order.aggregate.load")
+        .description("Time to source an aggregate from the event store")
+        .tag("aggregate", aggregateType.getSimpleName())
+        .tag("snapshot", String.valueOf(fromSnapshot))
+        .register(meterRegistry);
+  }
+
+  private DistributionSummary loadEvents(Class<?> aggregateType, boolean fromSnapshot) {
+    return DistributionSummary.builder("order.aggregate.load.events")
+        .description("Messages applied per aggregate load, including the snapshot")
+        .tag("aggregate", aggregateType.getSimpleName())
+        .tag("snapshot", String.valueOf(fromSnapshot))
+        .register(meterRegistry);
+  }
+
+  private static final class MeteredTrigger implements SnapshotTrigger {
+
+    private static final long serialVersionUID = 1L;
+
+    private SnapshotTrigger delegate;
+    private final Class<?> aggregateType;
+    private transient MeteredSnapshotTriggerDefinition definition;
+    private transient long startNanos;
+    private transient int messages;
+    private transient boolean fromSnapshot;
+
+    private MeteredTrigger(SnapshotTrigger delegate, Class<?> aggregateType,
+        MeteredSnapshotTriggerDefinition definition) {
+      this.delegate = delegate;
+      this.aggregateType = aggregateType;
+      this.definition = definition;
+      this.startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void eventHandled(EventMessage<?> msg) {
+      if (messages++ == 0) {
+        fromSnapshot = aggregateType.equals(msg.getPayloadType());
+      }
+      delegate.eventHandled(msg);
+    }
+
+    @Override
+    public void initializationFinished() {
+      delegate.initializationFinished();
+      // Creation commands source nothing; counting them would drag the events per load down
+      if (definition != null && startNanos != 0 && messages > 0) {
+        definition.loadTimer(aggregateType, fromSnapshot)
+            .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        definition.loadEvents(aggregateType, fromSnapshot).record(messages);
+      }
+      // Only the initial load is timed; later events come from command handling
+      startNanos = 0;
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package com.microservices.order.aggregate;
 
+import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.microservices.common.commands.CancelOrderCommand;
 import com.microservices.common.commands.CompleteOrderCommand;
 import com.microservices.common.commands.ConfirmOrderCommand;
@@ -18,7 +19,13 @@ import com.microservices.common.events.OrderRefundedEvent;
 import com.microservices.common.events.OrderStatusUpdatedEvent;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,21 +33,40 @@ import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.eventsourcing.EventSourcingHandler;
 import org.axonframework.modelling.command.AggregateIdentifier;
 import org.axonframework.modelling.command.AggregateLifecycle;
+import org.axonframework.serialization.Revision;
 import org.axonframework.spring.stereotype.Aggregate;
-
-@Aggregate
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+@Aggregate(snapshotTriggerDefinition = "orderSnapshotTriggerDefinition",
+    cache = "orderAggregateCache")
+@Revision("2")
+@JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY,
+    getterVisibility = JsonAutoDetect.Visibility.NONE,
+    isGetterVisibility = JsonAutoDetect.Visibility.NONE)
 @NoArgsConstructor
 @Slf4j
 public class OrderAggregate {
 
+  private static final Logger REPLAY_LOG =
+      LoggerFactory.getLogger("com.microservices.order.replay");
+
+  private static final Set<OrderLifecycleStatus> FAILED_OR_CLOSED = EnumSet.of(
+      OrderLifecycleStatus.FAILED, OrderLifecycleStatus.COMPLETED, OrderLifecycleStatus.CANCELLED);
+  private static final Set<OrderLifecycleStatus> OPEN = EnumSet.of(
+      OrderLifecycleStatus.CREATED, OrderLifecycleStatus.PROCESSING);
+  private static final Set<OrderLifecycleStatus> REFUNDABLE = EnumSet.of(
+      OrderLifecycleStatus.COMPLETED, OrderLifecycleStatus.CONFIRMED);
+
   @AggregateIdentifier
   private String orderId;
   private Long userId;
-  private List<OrderCreatedEvent.OrderItem> items;
+  // Keyed by productId so item changes are lookups rather than scans
+  private Map<Long, OrderCreatedEvent.OrderItem> items;
   private BigDecimal totalAmount;
   private String currency;
   private String paymentMethod;
-  private String status;
+  private OrderLifecycleStatus status;
   private String transactionId;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
@@ -61,6 +87,15 @@ public class OrderAggregate {
       throw new IllegalArgumentException("User ID is required");
     }
 
+    // Items are keyed by product, so a product may only appear on one line
+    Set<Long> productIds = new HashSet<>();
+    for (CreateOrderCommand.OrderItemRequest item : command.getItems()) {
+      if (!productIds.add(item.getProductId())) {
+        throw new IllegalArgumentException(
+            "Product " + item.getProductId() + " appears more than once in the order");
+      }
+    }
+
     // ✅ Business logic - Calculate total amount
     BigDecimal total = command.getItems().stream()
         .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
@@ -96,16 +131,10 @@ public class OrderAggregate {
         command.getOrderId(), command.getReason());
 
     // ✅ Business validation
-    if ("FAILED".equals(this.status)) {
-      throw new IllegalStateException("Order is already failed");
-    }
-
-    if ("COMPLETED".equals(this.status)) {
-      throw new IllegalStateException("Cannot fail a completed order");
-    }
-
-    if ("CANCELLED".equals(this.status)) {
-      throw new IllegalStateException("Cannot fail a cancelled order");
+    if (FAILED_OR_CLOSED.contains(this.status)) {
+      throw new IllegalStateException(this.status == OrderLifecycleStatus.FAILED
+          ? "Order is already failed"
+          : "Cannot fail a " + this.status.name().toLowerCase() + " order");
     }
 
     // ✅ Apply business decision
@@ -122,11 +151,11 @@ public class OrderAggregate {
     log.info("Handling cancel order command for orderId: {}", command.getOrderId());
 
     // ✅ Business validation
-    if ("COMPLETED".equals(this.status)) {
+    if (this.status == OrderLifecycleStatus.COMPLETED) {
       throw new IllegalStateException("Cannot cancel a completed order");
     }
 
-    if ("CANCELLED".equals(this.status)) {
+    if (this.status == OrderLifecycleStatus.CANCELLED) {
       throw new IllegalStateException("Order is already cancelled");
     }
 
@@ -158,7 +187,7 @@ public class OrderAggregate {
     log.info("Handling confirm order command for orderId: {}", command.getOrderId());
 
     // ✅ Business validation
-    if (!"CREATED".equals(this.status) && !"PROCESSING".equals(this.status)) {
+    if (!OPEN.contains(this.status)) {
       throw new IllegalStateException(
           "Can only confirm orders that are in CREATED or PROCESSING status");
     }
@@ -178,11 +207,12 @@ public class OrderAggregate {
         command.getOrderId(), command.getNewStatus());
 
     // ✅ Business validation
-    if (this.status.equals(command.getNewStatus())) {
+    OrderLifecycleStatus newStatus = OrderLifecycleStatus.valueOf(command.getNewStatus());
+    if (this.status == newStatus) {
       throw new IllegalStateException("Order is already in status: " + command.getNewStatus());
     }
 
-    if (!isValidStatusTransition(this.status, command.getNewStatus())) {
+    if (!this.status.canTransitionTo(newStatus)) {
       throw new IllegalStateException(
           "Invalid status transition from " + this.status + " to " + command.getNewStatus());
     }
@@ -190,7 +220,7 @@ public class OrderAggregate {
     // ✅ Apply business decision
     AggregateLifecycle.apply(new OrderStatusUpdatedEvent(
         command.getOrderId(),
-        this.status,
+        this.status.name(),
         command.getNewStatus(),
         command.getReason(),
         command.getUpdatedBy(),
@@ -204,7 +234,7 @@ public class OrderAggregate {
         command.getOrderId(), command.getRefundAmount());
 
     // ✅ Business validation
-    if (!"COMPLETED".equals(this.status) && !"CONFIRMED".equals(this.status)) {
+    if (!REFUNDABLE.contains(this.status)) {
       throw new IllegalStateException("Can only refund completed or confirmed orders");
     }
 
@@ -227,7 +257,7 @@ public class OrderAggregate {
     log.info("Handling update order items command for orderId: {}", command.getOrderId());
 
     // ✅ Business validation
-    if (!"CREATED".equals(this.status) && !"PROCESSING".equals(this.status)) {
+    if (!OPEN.contains(this.status)) {
       throw new IllegalStateException(
           "Can only update items for orders in CREATED or PROCESSING status");
     }
@@ -238,15 +268,13 @@ public class OrderAggregate {
     // Convert updates to event changes
     List<OrderItemsUpdatedEvent.OrderItemChange> itemChanges = command.getItemUpdates().stream()
         .map(update -> {
-          var existingItem = this.items.stream()
-              .filter(item -> item.getProductId().equals(update.getProductId()))
-              .findFirst();
+          OrderCreatedEvent.OrderItem existingItem = this.items.get(update.getProductId());
 
           return new OrderItemsUpdatedEvent.OrderItemChange(
               update.getProductId(),
-              existingItem.map(OrderCreatedEvent.OrderItem::getQuantity).orElse(0),
+              existingItem != null ? existingItem.getQuantity() : 0,
               update.getNewQuantity(),
-              existingItem.map(OrderCreatedEvent.OrderItem::getPrice).orElse(BigDecimal.ZERO),
+              existingItem != null ? existingItem.getPrice() : BigDecimal.ZERO,
               update.getNewPrice(),
               update.getAction()
           );
@@ -267,88 +295,97 @@ public class OrderAggregate {
 
   @EventSourcingHandler
   public void on(OrderCreatedEvent event) {
-    log.info("Applying OrderCreatedEvent for orderId: {}", event.getOrderId());
+    logApplied("Applying OrderCreatedEvent for orderId: {}", event.getOrderId());
     this.orderId = event.getOrderId();
     this.userId = event.getUserId();
-    this.items = event.getItems();
+    this.items = new LinkedHashMap<>();
+    // Orders created before duplicates were rejected may list a product twice
+    event.getItems().forEach(item -> this.items.merge(item.getProductId(), item,
+        (existing, added) -> new OrderCreatedEvent.OrderItem(existing.getProductId(),
+            existing.getQuantity() + added.getQuantity(), added.getPrice())));
     this.totalAmount = event.getTotalAmount();
     this.currency = event.getCurrency();
     this.paymentMethod = event.getPaymentMethod();
-    this.status = "CREATED";
+    this.status = OrderLifecycleStatus.CREATED;
     this.createdAt = event.getCreatedAt();
     this.updatedAt = event.getCreatedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderFailedEvent event) {
-    log.info("Applying OrderFailedEvent for orderId: {}, reason: {}",
+    logApplied("Applying OrderFailedEvent for orderId: {}, reason: {}",
         event.getOrderId(), event.getReason());
-    this.status = "FAILED";
+    this.status = OrderLifecycleStatus.FAILED;
     this.updatedAt = event.getFailedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderCancelledEvent event) {
-    log.info("Applying OrderCancelledEvent for orderId: {}", event.getOrderId());
-    this.status = "CANCELLED";
+    logApplied("Applying OrderCancelledEvent for orderId: {}", event.getOrderId());
+    this.status = OrderLifecycleStatus.CANCELLED;
     this.updatedAt = event.getCancelledAt();
   }
 
   @EventSourcingHandler
   public void on(OrderCompletedEvent event) {
-    log.info("Applying OrderCompletedEvent for orderId: {}", event.getOrderId());
-    this.status = "COMPLETED";
+    logApplied("Applying OrderCompletedEvent for orderId: {}", event.getOrderId());
+    this.status = OrderLifecycleStatus.COMPLETED;
     this.updatedAt = event.getCompletedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderConfirmedEvent event) {
-    log.info("Applying OrderConfirmedEvent for orderId: {}", event.getOrderId());
-    this.status = "CONFIRMED";
+    logApplied("Applying OrderConfirmedEvent for orderId: {}", event.getOrderId());
+    this.status = OrderLifecycleStatus.CONFIRMED;
     this.transactionId = event.getTransactionId();
     this.updatedAt = event.getConfirmedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderStatusUpdatedEvent event) {
-    log.info("Applying OrderStatusUpdatedEvent for orderId: {}, newStatus: {}",
+    logApplied("Applying OrderStatusUpdatedEvent for orderId: {}, newStatus: {}",
         event.getOrderId(), event.getNewStatus());
-    this.status = event.getNewStatus();
+    this.status = OrderLifecycleStatus.valueOf(event.getNewStatus());
     this.updatedAt = event.getUpdatedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderRefundedEvent event) {
-    log.info("Applying OrderRefundedEvent for orderId: {}, refundAmount: {}",
+    logApplied("Applying OrderRefundedEvent for orderId: {}, refundAmount: {}",
         event.getOrderId(), event.getRefundAmount());
-    this.status = "REFUNDED";
+    this.status = OrderLifecycleStatus.REFUNDED;
     this.updatedAt = event.getRefundedAt();
   }
 
   @EventSourcingHandler
   public void on(OrderItemsUpdatedEvent event) {
-    log.info("Applying OrderItemsUpdatedEvent for orderId: {}", event.getOrderId());
+    logApplied("Applying OrderItemsUpdatedEvent for orderId: {}", event.getOrderId());
 
     // Update items based on changes
     for (OrderItemsUpdatedEvent.OrderItemChange change : event.getItemChanges()) {
       switch (change.getAction()) {
         case "ADD":
-          this.items.add(new OrderCreatedEvent.OrderItem(
-              change.getProductId(),
-              change.getNewQuantity(),
-              change.getNewPrice()));
+          // Older events may add a product twice; its quantities are merged
+          this.items.merge(change.getProductId(),
+              new OrderCreatedEvent.OrderItem(
+                  change.getProductId(),
+                  change.getNewQuantity(),
+                  change.getNewPrice()),
+              (existing, added) -> {
+                existing.setQuantity(existing.getQuantity() + added.getQuantity());
+                existing.setPrice(added.getPrice());
+                return existing;
+              });
           break;
         case "UPDATE":
-          this.items.stream()
-              .filter(item -> item.getProductId().equals(change.getProductId()))
-              .findFirst()
-              .ifPresent(item -> {
-                item.setQuantity(change.getNewQuantity());
-                item.setPrice(change.getNewPrice());
-              });
+          OrderCreatedEvent.OrderItem item = this.items.get(change.getProductId());
+          if (item != null) {
+            item.setQuantity(change.getNewQuantity());
+            item.setPrice(change.getNewPrice());
+          }
           break;
         case "REMOVE":
-          this.items.removeIf(item -> item.getProductId().equals(change.getProductId()));
+          this.items.remove(change.getProductId());
           break;
       }
     }
@@ -359,55 +396,70 @@ public class OrderAggregate {
 
   // ===== HELPER METHODS =====
 
-  private boolean isValidStatusTransition(String fromStatus, String toStatus) {
-    switch (fromStatus) {
-      case "CREATED":
-        return List.of("PROCESSING", "CANCELLED", "FAILED").contains(toStatus);
-      case "PROCESSING":
-        return List.of("CONFIRMED", "FAILED", "CANCELLED").contains(toStatus);
-      case "CONFIRMED":
-        return List.of("COMPLETED", "REFUNDED", "CANCELLED", "FAILED").contains(toStatus);
-      case "COMPLETED":
-        return List.of("REFUNDED").contains(toStatus);
-      case "FAILED":
-        return List.of("PROCESSING", "CANCELLED").contains(toStatus);
-      default:
-        return false;
+  // Sourcing handlers run for every historic event on each load; only events just applied by a
+  // command are logged at INFO, replayed ones go to the replay logger at DEBUG
+  private static void logApplied(String format, Object arg) {
+    if (AggregateLifecycle.isLive()) {
+      log.info(format, arg);
+    } else if (REPLAY_LOG.isDebugEnabled()) {
+      REPLAY_LOG.debug(format, arg);
+    }
+  }
+
+  private static void logApplied(String format, Object arg1, Object arg2) {
+    if (AggregateLifecycle.isLive()) {
+      log.info(format, arg1, arg2);
+    } else if (REPLAY_LOG.isDebugEnabled()) {
+      REPLAY_LOG.debug(format, arg1, arg2);
     }
   }
 
+  // Applies each update as a delta on the current total; only touched products are tracked
   private BigDecimal calculateNewTotalAmount(
       List<UpdateOrderItemsCommand.OrderItemUpdate> updates) {
-    List<OrderCreatedEvent.OrderItem> updatedItems = this.items.stream()
-        .map(item -> new OrderCreatedEvent.OrderItem(item.getProductId(), item.getQuantity(),
-            item.getPrice()))
-        .collect(Collectors.toList());
+    BigDecimal total = this.totalAmount;
+    Map<Long, BigDecimal> changedLines = new HashMap<>();
 
     for (UpdateOrderItemsCommand.OrderItemUpdate update : updates) {
+      Long productId = update.getProductId();
+      BigDecimal currentLine = changedLines.containsKey(productId)
+          ? changedLines.get(productId)
+          : lineTotal(this.items.get(productId));
+
+      BigDecimal newLine;
       switch (update.getAction()) {
         case "ADD":
-          updatedItems.add(new OrderCreatedEvent.OrderItem(
-              update.getProductId(),
-              update.getNewQuantity(),
-              update.getNewPrice()));
+          if (currentLine != null) {
+            throw new IllegalArgumentException(
+                "Product " + productId + " is already in the order, use UPDATE instead");
+          }
+          newLine = update.getNewPrice().multiply(BigDecimal.valueOf(update.getNewQuantity()));
           break;
         case "UPDATE":
-          updatedItems.stream()
-              .filter(item -> item.getProductId().equals(update.getProductId()))
-              .findFirst()
-              .ifPresent(item -> {
-                item.setQuantity(update.getNewQuantity());
-                item.setPrice(update.getNewPrice());
-              });
+          newLine = currentLine == null
+              ? null
+              : update.getNewPrice().multiply(BigDecimal.valueOf(update.getNewQuantity()));
           break;
         case "REMOVE":
-          updatedItems.removeIf(item -> item.getProductId().equals(update.getProductId()));
+          newLine = null;
           break;
+        default:
+          newLine = currentLine;
       }
+
+      if (currentLine != null) {
+        total = total.subtract(currentLine);
+      }
+      if (newLine != null) {
+        total = total.add(newLine);
+      }
+      changedLines.put(productId, newLine);
     }
 
-    return updatedItems.stream()
-        .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    return total;
+  }
+
+  private static BigDecimal lineTotal(OrderCreatedEvent.OrderItem item) {
+    return item == null ? null : item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,35 @@
+package com.microservices.order.aggregate;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Status of an event-sourced order. Allowed transitions are resolved once into an
+ * {@link EnumSet} per status, so checking one is a bit test.
+ */
+public enum OrderLifecycleStatus {
+  CREATED,
+  PROCESSING,
+  CONFIRMED,
+  COMPLETED,
+  FAILED,
+  CANCELLED,
+  REFUNDED;
+
+  // Assigned once all constants exist; an EnumSet cannot be built while they are being created
+  private Set<OrderLifecycleStatus> transitions;
+
+  static {
+    CREATED.transitions = EnumSet.of(PROCESSING, CANCELLED, FAILED);
+    PROCESSING.transitions = EnumSet.of(CONFIRMED, FAILED, CANCELLED);
+    CONFIRMED.transitions = EnumSet.of(COMPLETED, REFUNDED, CANCELLED, FAILED);
+    COMPLETED.transitions = EnumSet.of(REFUNDED);
+    FAILED.transitions = EnumSet.of(PROCESSING, CANCELLED);
+    CANCELLED.transitions = EnumSet.noneOf(OrderLifecycleStatus.class);
+    REFUNDED.transitions = EnumSet.noneOf(OrderLifecycleStatus.class);
+  }
+
+  public boolean canTransitionTo(OrderLifecycleStatus target) {
+    return transitions.contains(target);
+  }
+}
@@ -0,0 +1,111 @@
+package com.microservices.order.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import org.axonframework.common.Registration;
+import org.axonframework.common.caching.Cache;
+
+/**
+ * Axon cache on Caffeine, bounded by entry count (W-TinyLFU) and idle time. Used for aggregates,
+ * where the caching repository drops an entry when its unit of work rolls back (including on
+ * concurrency conflicts), and for sagas and their associations in front of the saga store.
+ */
+public class CaffeineAxonCache implements Cache {
+
+  private final com.github.benmanes.caffeine.cache.Cache<Object, Object> cache;
+  private final List<EntryListener> listeners = new CopyOnWriteArrayList<>();
+
+  public CaffeineAxonCache(String name, long maximumSize, Duration expireAfterAccess,
+      MeterRegistry meterRegistry) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterAccess(expireAfterAccess)
+        .recordStats()
+        .removalListener((key, value, cause) -> {
+          if (cause == RemovalCause.EXPIRED || cause == RemovalCause.SIZE) {
+            listeners.forEach(listener -> listener.onEntryExpired(key));
+          }
+        })
+        .build();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <K, V> V get(K key) {
+    Object value = cache.getIfPresent(key);
+    if (value != null) {
+      listeners.forEach(listener -> listener.onEntryRead(key, value));
+    }
+    return (V) value;
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    if (value == null) {
+      remove(key);
+      return;
+    }
+    boolean created = cache.asMap().put(key, value) == null;
+    listeners.forEach(listener -> {
+      if (created) {
+        listener.onEntryCreated(key, value);
+      } else {
+        listener.onEntryUpdated(key, value);
+      }
+    });
+  }
+
+  @Override
+  public boolean putIfAbsent(Object key, Object value) {
+    boolean created = cache.asMap().putIfAbsent(key, value) == null;
+    if (created) {
+      listeners.forEach(listener -> listener.onEntryCreated(key, value));
+    }
+    return created;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T computeIfAbsent(Object key, Supplier<T> valueSupplier) {
+    return (T) cache.get(key, k -> valueSupplier.get());
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <V> void computeIfPresent(Object key, UnaryOperator<V> update) {
+    cache.asMap().computeIfPresent(key, (k, value) -> update.apply((V) value));
+  }
+
+  @Override
+  public boolean remove(Object key) {
+    boolean removed = cache.asMap().remove(key) != null;
+    if (removed) {
+      listeners.forEach(listener -> listener.onEntryRemoved(key));
+    }
+    return removed;
+  }
+
+  @Override
+  public void removeAll() {
+    cache.asMap().keySet().forEach(this::remove);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return cache.asMap().containsKey(key);
+  }
+
+  @Override
+  public Registration registerCacheEntryListener(EntryListener cacheEntryListener) {
+    listeners.add(cacheEntryListener);
+    return () -> listeners.remove(cacheEntryListener);
+  }
+}
@@ -0,0 +1,238 @@
+package com.microservices.order.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+/**
+ * Single-flight decorator for {@code @Cacheable(sync = true)} lookups. Concurrent misses for the
+ * same key share one load. Hits may trigger a probabilistic early refresh (XFetch) so hot entries
+ * are reloaded before they expire instead of stampeding at expiry. The refresh runs on the hit's
+ * own thread, inside the cached method's invocation; other callers keep getting the cached value.
+ */
+@Slf4j
+public class CoalescingCache implements Cache, MultiGetCache, LoadedValueCache {
+
+  private final Cache delegate;
+  private final Duration timeToLive;
+  private final double beta;
+  private final RedisMultiGet multiGet;
+
+  private final ConcurrentMap<String, CompletableFuture<Object>> inFlight =
+      new ConcurrentHashMap<>();
+  private final com.github.benmanes.caffeine.cache.Cache<String, LoadStats> loadStats;
+
+  private final Counter loads;
+  private final Counter coalesced;
+  private final Counter earlyRefreshes;
+
+  CoalescingCache(Cache delegate, Duration timeToLive, double beta, long maximumSize,
+      RedisMultiGet multiGet, MeterRegistry meterRegistry) {
+    this.delegate = delegate;
+    this.timeToLive = timeToLive;
+    this.beta = beta;
+    this.multiGet = multiGet;
+    this.loadStats = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(timeToLive)
+        .build();
+
+    this.loads = counter("order.cache.loads", "Cache loads executed", meterRegistry);
+    this.coalesced = counter("order.cache.coalesced",
+        "Cache misses that joined an in-flight load", meterRegistry);
+    this.earlyRefreshes = counter("order.cache.early.refresh",
+        "Entries reloaded before expiry", meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return delegate.getName();
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return delegate.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    return delegate.get(key);
+  }
+
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    return delegate instanceof MultiGetCache multiGetCache
+        ? multiGetCache.getAll(keys)
+        : multiGet.getAll(delegate, keys);
+  }
+
+  @Override
+  public <T> T get(Object key, Class<T> type) {
+    return delegate.get(key, type);
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    String flightKey = String.valueOf(key);
+
+    ValueWrapper cached = delegate.get(key);
+    if (cached != null) {
+      return (T) (shouldRefreshEarly(flightKey)
+          ? refreshEarly(key, flightKey, valueLoader, cached.get())
+          : cached.get());
+    }
+
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+    if (existing != null) {
+      coalesced.increment();
+      return (T) await(existing, key, valueLoader);
+    }
+
+    try {
+      // Another caller may have completed a load between our miss and claiming the flight
+      ValueWrapper loaded = delegate.get(key);
+      flight.complete(loaded != null ? loaded.get() : load(key, flightKey, valueLoader));
+    } catch (Throwable e) {
+      flight.completeExceptionally(e);
+    } finally {
+      inFlight.remove(flightKey, flight);
+    }
+    return (T) await(flight, key, valueLoader);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    delegate.put(key, value);
+  }
+
+  @Override
+  public void putLoaded(Object key, Object value) {
+    if (delegate instanceof LoadedValueCache loadedValueCache) {
+      loadedValueCache.putLoaded(key, value);
+    } else {
+      delegate.put(key, value);
+    }
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    return delegate.putIfAbsent(key, value);
+  }
+
+  @Override
+  public void evict(Object key) {
+    loadStats.invalidate(String.valueOf(key));
+    delegate.evict(key);
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    loadStats.invalidate(String.valueOf(key));
+    return delegate.evictIfPresent(key);
+  }
+
+  @Override
+  public void clear() {
+    loadStats.invalidateAll();
+    delegate.clear();
+  }
+
+  @Override
+  public boolean invalidate() {
+    loadStats.invalidateAll();
+    return delegate.invalidate();
+  }
+
+  private Object load(Object key, String flightKey, Callable<?> valueLoader) throws Exception {
+    long start = System.nanoTime();
+    Object value = valueLoader.call();
+    long elapsed = System.nanoTime() - start;
+    loads.increment();
+
+    // Null results are returned to the callers but never cached
+    if (value != null) {
+      putLoaded(key, value);
+      loadStats.put(flightKey, new LoadStats(start + timeToLive.toNanos(), elapsed));
+    }
+    return value;
+  }
+
+  /**
+   * XFetch: refresh when {@code now - delta * beta * ln(rand) >= expiry}, where delta is the time
+   * the last load took. Slow-to-compute entries start refreshing earlier.
+   */
+  private boolean shouldRefreshEarly(String flightKey) {
+    if (beta <= 0) {
+      return false;
+    }
+    LoadStats stats = loadStats.getIfPresent(flightKey);
+    if (stats == null) {
+      return false;
+    }
+    double random = ThreadLocalRandom.current().nextDouble(Double.MIN_VALUE, 1.0);
+    return System.nanoTime() - stats.deltaNanos() * beta * Math.log(random)
+        >= stats.expiresAtNanos();
+  }
+
+  // The value loader belongs to the caller's invocation, so it must not outlive it on another
+  // thread; a failed refresh serves the cached value until it expires
+  private Object refreshEarly(Object key, String flightKey, Callable<?> valueLoader,
+      Object cachedValue) {
+    CompletableFuture<Object> flight = new CompletableFuture<>();
+    if (inFlight.putIfAbsent(flightKey, flight) != null) {
+      return cachedValue;
+    }
+
+    earlyRefreshes.increment();
+    log.debug("♻️ Early refresh of key '{}' in cache '{}'", key, getName());
+    try {
+      Object value = load(key, flightKey, valueLoader);
+      flight.complete(value);
+      return value;
+    } catch (Throwable e) {
+      log.warn("Early refresh of key '{}' in cache '{}' failed: {}", key, getName(),
+          e.getMessage());
+      flight.complete(cachedValue);
+      return cachedValue;
+    } finally {
+      inFlight.remove(flightKey, flight);
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> flight, Object key,
+      Callable<?> valueLoader) {
+    try {
+      return flight.join();
+    } catch (CompletionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new ValueRetrievalException(key, valueLoader, cause);
+    }
+  }
+
+  private Counter counter(String name, String description, MeterRegistry meterRegistry) {
+    return Counter.builder(name)
+        .description(description)
+        .tag("cache", delegate.getName())
+        .register(meterRegistry);
+  }
+
+  private record LoadStats(long expiresAtNanos, long deltaNanos) {
+
+  }
+}
@@ -0,0 +1,56 @@
+package com.microservices.order.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/**
+ * Decorates every cache of the target manager with {@link CoalescingCache}.
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+  private final CacheManager targetCacheManager;
+  private final Function<String, Duration> timeToLive;
+  private final double beta;
+  private final long maximumSize;
+  private final RedisMultiGet multiGet;
+  private final MeterRegistry meterRegistry;
+
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public CoalescingCacheManager(CacheManager targetCacheManager,
+      Function<String, Duration> timeToLive, double beta, long maximumSize,
+      RedisMultiGet multiGet, MeterRegistry meterRegistry) {
+    this.targetCacheManager = targetCacheManager;
+    this.timeToLive = timeToLive;
+    this.beta = beta;
+    this.maximumSize = maximumSize;
+    this.multiGet = multiGet;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public CacheManager getTargetCacheManager() {
+    return targetCacheManager;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, cacheName -> {
+      Cache target = targetCacheManager.getCache(cacheName);
+      return target != null
+          ? new CoalescingCache(target, timeToLive.apply(cacheName), beta, maximumSize,
+              multiGet, meterRegistry)
+          : null;
+    });
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return targetCacheManager.getCacheNames();
+  }
+}
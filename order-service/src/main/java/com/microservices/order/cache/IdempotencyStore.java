@@ -0,0 +1,285 @@
+package com.microservices.order.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Runs an order-creating request at most once per {@code Idempotency-Key}. The first request
+ * claims the key in Redis (SET NX) and stores its response when done; retries with the same key
+ * and body get that response replayed, and retries arriving while it runs wait for it. A key
+ * reused with a different body is rejected with 422. Keys are scoped by the caller, so one
+ * client's key never replays another client's response.
+ */
+@Component
+@Slf4j
+public class IdempotencyStore {
+
+  private static final String STATUS_FIELD = "status";
+  private static final String BODY_FIELD = "body";
+  private static final Duration MAX_POLL_INTERVAL = Duration.ofMillis(500);
+
+  // Extends a running request's claim, unless its response is stored and the claim holds the
+  // full ttl already
+  private static final RedisScript<Long> RENEW_CLAIM = new DefaultRedisScript<>(
+      "if redis.call('exists', KEYS[2]) == 0 then "
+          + "return redis.call('pexpire', KEYS[1], ARGV[1]) end return 0", Long.class);
+
+  // Field order must not depend on the mapper configuration, or equal bodies would hash apart
+  private static final JsonMapper FINGERPRINT_MAPPER = JsonMapper.builder()
+      .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+      .build();
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final Duration timeToLive;
+  private final Duration inFlightTimeToLive;
+  private final Duration waitTimeout;
+  private final MeterRegistry meterRegistry;
+  private final TaskScheduler taskScheduler;
+
+  // Requests running on this replica, so local duplicates wait without polling Redis
+  private final Map<String, CompletableFuture<ResponseEntity<OrderResponse>>> running =
+      new ConcurrentHashMap<>();
+
+  public IdempotencyStore(RedisConnectionFactory connectionFactory,
+      RedisSerializer<Object> cacheValueSerializer,
+      MeterRegistry meterRegistry,
+      TaskScheduler taskScheduler,
+      @Value("${order.idempotency.ttl:24h}") Duration timeToLive,
+      @Value("${order.idempotency.in-flight-ttl:30s}") Duration inFlightTimeToLive,
+      @Value("${order.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+    this.timeToLive = timeToLive;
+    this.inFlightTimeToLive = inFlightTimeToLive;
+    this.waitTimeout = waitTimeout;
+    this.meterRegistry = meterRegistry;
+    this.taskScheduler = taskScheduler;
+
+    RedisTemplate<String, String> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(StringRedisSerializer.UTF_8);
+    template.setValueSerializer(StringRedisSerializer.UTF_8);
+    template.setHashKeySerializer(StringRedisSerializer.UTF_8);
+    template.setHashValueSerializer(cacheValueSerializer);
+    template.afterPropertiesSet();
+    this.redisTemplate = template;
+  }
+
+  public ResponseEntity<OrderResponse> execute(String scope, String idempotencyKey,
+      Object request, Supplier<ResponseEntity<OrderResponse>> action) {
+    String key = scope + ":" + idempotencyKey;
+    String fingerprint = fingerprint(scope, request);
+    long deadline = System.nanoTime() + waitTimeout.toNanos();
+
+    while (true) {
+      boolean claimed;
+      ResponseEntity<OrderResponse> existing = null;
+      try {
+        claimed = Boolean.TRUE.equals(redisTemplate.opsForValue()
+            .setIfAbsent(claimKey(key), fingerprint, inFlightTimeToLive));
+        if (!claimed) {
+          existing = findExisting(key, idempotencyKey, fingerprint, deadline);
+        }
+      } catch (DataAccessException e) {
+        // Like the caches, Redis being down must not stop order creation
+        log.warn("Idempotency store unavailable, running request without it: {}",
+            e.getMessage());
+        count("unavailable");
+        return action.get();
+      }
+      if (claimed) {
+        count("executed");
+        return runClaimed(key, action);
+      }
+      if (existing != null) {
+        return existing;
+      }
+    }
+  }
+
+  // The response of the request holding the claim, or null when the claim should be retried
+  private ResponseEntity<OrderResponse> findExisting(String key, String idempotencyKey,
+      String fingerprint, long deadline) {
+    String claimedBy = redisTemplate.opsForValue().get(claimKey(key));
+    if (claimedBy == null) {
+      // The first execution failed and released the key in the meantime
+      return null;
+    }
+    if (!claimedBy.equals(fingerprint)) {
+      count("conflict");
+      throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+          "Idempotency-Key " + idempotencyKey + " was used for a different request");
+    }
+
+    ResponseEntity<OrderResponse> stored = readResponse(key);
+    if (stored != null) {
+      count("replayed");
+      log.info("🔁 Replaying stored response for Idempotency-Key {}", idempotencyKey);
+      return stored;
+    }
+
+    ResponseEntity<OrderResponse> awaited = awaitRunning(key, deadline);
+    if (awaited != null) {
+      count("awaited");
+      return awaited;
+    }
+    if (System.nanoTime() >= deadline) {
+      count("timeout");
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+          "Request with Idempotency-Key " + idempotencyKey + " is still in progress");
+    }
+    return null;
+  }
+
+  private ResponseEntity<OrderResponse> runClaimed(String key,
+      Supplier<ResponseEntity<OrderResponse>> action) {
+    CompletableFuture<ResponseEntity<OrderResponse>> result = new CompletableFuture<>();
+    running.put(key, result);
+    // The claim outlives in-flight-ttl as long as the request runs, however slow it is
+    Duration renewInterval = inFlightTimeToLive.dividedBy(3);
+    ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(() -> renewClaim(key),
+        Instant.now().plus(renewInterval), renewInterval);
+    try {
+      ResponseEntity<OrderResponse> response = action.get();
+      try {
+        storeResponse(key, response);
+      } catch (DataAccessException e) {
+        log.warn("Failed to store response for idempotent request {}: {}", key, e.getMessage());
+      }
+      result.complete(response);
+      return response;
+    } catch (RuntimeException e) {
+      // Nothing is stored for failed requests; release the key so a retry runs again
+      try {
+        redisTemplate.delete(claimKey(key));
+      } catch (DataAccessException releaseFailure) {
+        log.warn("Failed to release idempotency key {}: {}", key, releaseFailure.getMessage());
+      }
+      result.completeExceptionally(e);
+      throw e;
+    } finally {
+      renewal.cancel(false);
+      running.remove(key, result);
+    }
+  }
+
+  private void renewClaim(String key) {
+    try {
+      redisTemplate.execute(RENEW_CLAIM, List.of(claimKey(key), responseKey(key)),
+          String.valueOf(inFlightTimeToLive.toMillis()));
+    } catch (DataAccessException e) {
+      log.warn("Failed to renew idempotency claim {}: {}", key, e.getMessage());
+    }
+  }
+
+  // Waits for a local execution, or polls Redis with growing intervals for a remote one
+  private ResponseEntity<OrderResponse> awaitRunning(String key, long deadline) {
+    CompletableFuture<ResponseEntity<OrderResponse>> local = running.get(key);
+    if (local != null) {
+      try {
+        return local.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      } catch (ExecutionException e) {
+        // The first execution failed; the caller retries the claim
+        return null;
+      } catch (TimeoutException e) {
+        return null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for idempotent request", e);
+      }
+    }
+
+    long interval = Duration.ofMillis(20).toNanos();
+    while (System.nanoTime() < deadline) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(Math.min(interval, deadline - System.nanoTime()));
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Interrupted while waiting for idempotent request", e);
+      }
+      ResponseEntity<OrderResponse> stored = readResponse(key);
+      if (stored != null || !Boolean.TRUE.equals(redisTemplate.hasKey(claimKey(key)))) {
+        return stored;
+      }
+      interval = Math.min(interval * 2, MAX_POLL_INTERVAL.toNanos());
+    }
+    return null;
+  }
+
+  private void storeResponse(String key, ResponseEntity<OrderResponse> response) {
+    redisTemplate.<String, Object>opsForHash().putAll(responseKey(key), Map.of(
+        STATUS_FIELD, String.valueOf(response.getStatusCode().value()),
+        BODY_FIELD, response.getBody()));
+    redisTemplate.expire(responseKey(key), timeToLive);
+    redisTemplate.expire(claimKey(key), timeToLive);
+  }
+
+  private ResponseEntity<OrderResponse> readResponse(String key) {
+    Map<String, Object> stored = redisTemplate.<String, Object>opsForHash()
+        .entries(responseKey(key));
+    if (!(stored.get(BODY_FIELD) instanceof OrderResponse body)
+        || !(stored.get(STATUS_FIELD) instanceof String status)) {
+      return null;
+    }
+    return ResponseEntity.status(Integer.parseInt(status)).body(body);
+  }
+
+  private static String fingerprint(String scope, Object request) {
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest.update(scope.getBytes(StandardCharsets.UTF_8));
+      digest.update(FINGERPRINT_MAPPER.writeValueAsBytes(request));
+      return HexFormat.of().formatHex(digest.digest());
+    } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+      throw new RuntimeException("Could not fingerprint request", e);
+    }
+  }
+
+  private void count(String result) {
+    Counter.builder("order.idempotency.requests")
+        .description("Requests carrying an Idempotency-Key, by how they were served")
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  // Hash tags keep both keys of one request in the same cluster slot
+  private static String claimKey(String key) {
+    return "order-service:idempotency:{" + key + "}:claim";
+  }
+
+  private static String responseKey(String key) {
+    return "order-service:idempotency:{" + key + "}:response";
+  }
+}
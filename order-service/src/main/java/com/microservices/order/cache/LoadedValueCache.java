@@ -0,0 +1,13 @@
+package com.microservices.order.cache;
+
+/**
+ * Cache that can store a value just read from the source of truth without treating it as a
+ * change, so other replicas keep their near-cache copies.
+ */
+public interface LoadedValueCache {
+
+  /**
+   * Stores a freshly loaded value. Unlike {@code put}, no invalidation is broadcast.
+   */
+  void putLoaded(Object key, Object value);
+}
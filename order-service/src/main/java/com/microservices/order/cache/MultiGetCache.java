@@ -0,0 +1,15 @@
+package com.microservices.order.cache;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Cache that can look up several keys in one round trip.
+ */
+public interface MultiGetCache {
+
+  /**
+   * Returns the cached values for the given keys. Keys without a cached value are left out.
+   */
+  Map<Object, Object> getAll(Collection<?> keys);
+}
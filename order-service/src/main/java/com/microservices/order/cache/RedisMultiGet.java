@@ -0,0 +1,73 @@
+package com.microservices.order.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.util.ByteUtils;
+
+/**
+ * Reads several entries of a {@link RedisCache} with a single MGET, using the key prefix and
+ * value serializer of that cache's own configuration.
+ */
+public class RedisMultiGet {
+
+  private final RedisConnectionFactory connectionFactory;
+
+  public RedisMultiGet(RedisConnectionFactory connectionFactory) {
+    this.connectionFactory = connectionFactory;
+  }
+
+  public Map<Object, Object> getAll(Cache cache, Collection<?> keys) {
+    Map<Object, Object> found = new LinkedHashMap<>();
+    if (keys.isEmpty()) {
+      return found;
+    }
+
+    if (!(cache instanceof RedisCache redisCache)) {
+      for (Object key : keys) {
+        Cache.ValueWrapper wrapper = cache.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+          found.put(key, wrapper.get());
+        }
+      }
+      return found;
+    }
+
+    RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+    String prefix = config.getKeyPrefixFor(redisCache.getName());
+    List<Object> keyList = new ArrayList<>(keys);
+    byte[][] rawKeys = new byte[keyList.size()][];
+    for (int i = 0; i < keyList.size(); i++) {
+      rawKeys[i] = ByteUtils.getBytes(
+          config.getKeySerializationPair().write(prefix + keyList.get(i)));
+    }
+
+    List<byte[]> values;
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      values = connection.stringCommands().mGet(rawKeys);
+    }
+    if (values == null) {
+      return found;
+    }
+
+    for (int i = 0; i < keyList.size() && i < values.size(); i++) {
+      byte[] bytes = values.get(i);
+      if (bytes == null) {
+        continue;
+      }
+      Object value = config.getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+      if (value != null) {
+        found.put(keyList.get(i), value);
+      }
+    }
+    return found;
+  }
+}
@@ -0,0 +1,151 @@
+package com.microservices.order.cache;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileParser;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.order.client.UserServiceClient;
+import com.microservices.order.dto.OrderConnection;
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Binary cache value serializer. Known cache types are written as Smile without embedded class
+ * names, behind a three byte header (magic, format version, type id). Values without the header
+ * are handed to the legacy serializer so entries written by older replicas stay readable.
+ */
+@Slf4j
+public class SmileRedisSerializer implements RedisSerializer<Object> {
+
+  static final byte MAGIC = (byte) 0xC5;
+  static final byte VERSION = 1;
+  private static final int HEADER_LENGTH = 3;
+
+  private static final byte TYPE_ORDER = 1;
+  private static final byte TYPE_USER = 2;
+  private static final byte TYPE_ORDER_LIST = 3;
+  private static final byte TYPE_ORDER_PAGE = 4;
+
+  private final ObjectMapper smileMapper;
+  private final JavaType[] types = new JavaType[5];
+  private final RedisSerializer<Object> legacySerializer;
+  private final DistributionSummary smilePayloadSize;
+  private final DistributionSummary legacyPayloadSize;
+
+  public SmileRedisSerializer(RedisSerializer<Object> legacySerializer,
+      MeterRegistry meterRegistry) {
+    this.legacySerializer = legacySerializer;
+
+    SmileFactory smileFactory = new SmileFactory();
+    // The cache header already identifies the payload
+    smileFactory.disable(SmileGenerator.Feature.WRITE_HEADER);
+    smileFactory.disable(SmileParser.Feature.REQUIRE_HEADER);
+
+    this.smileMapper = new ObjectMapper(smileFactory)
+        .registerModule(new JavaTimeModule())
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+        .addMixIn(OrderResponse.class, NoTypeInfo.class)
+        .addMixIn(OrderResponse.OrderItemResponse.class, NoTypeInfo.class);
+
+    types[TYPE_ORDER] = smileMapper.constructType(OrderResponse.class);
+    types[TYPE_USER] = smileMapper.constructType(UserServiceClient.UserResponse.class);
+    types[TYPE_ORDER_LIST] = smileMapper.getTypeFactory()
+        .constructCollectionType(List.class, OrderResponse.class);
+    types[TYPE_ORDER_PAGE] = smileMapper.constructType(OrderConnection.class);
+
+    this.smilePayloadSize = payloadSize("smile", meterRegistry);
+    this.legacyPayloadSize = payloadSize("json", meterRegistry);
+  }
+
+  @Override
+  public byte[] serialize(Object value) throws SerializationException {
+    if (value == null) {
+      return new byte[0];
+    }
+
+    byte typeId = typeIdOf(value);
+    if (typeId == 0) {
+      byte[] bytes = legacySerializer.serialize(value);
+      legacyPayloadSize.record(bytes != null ? bytes.length : 0);
+      return bytes;
+    }
+
+    try {
+      byte[] payload = smileMapper.writeValueAsBytes(value);
+      byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+      bytes[0] = MAGIC;
+      bytes[1] = VERSION;
+      bytes[2] = typeId;
+      System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+      smilePayloadSize.record(bytes.length);
+      return bytes;
+    } catch (IOException e) {
+      throw new SerializationException("Could not write Smile cache value", e);
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] bytes) throws SerializationException {
+    if (bytes == null || bytes.length == 0) {
+      return null;
+    }
+    if (bytes[0] != MAGIC) {
+      return legacySerializer.deserialize(bytes);
+    }
+    if (bytes.length < HEADER_LENGTH || bytes[1] != VERSION
+        || bytes[2] <= 0 || bytes[2] >= types.length || types[bytes[2]] == null) {
+      // Written by a newer replica: treat as a cache miss rather than failing the read
+      log.debug("Skipping cache value with unsupported header {}",
+          Arrays.toString(Arrays.copyOf(bytes, Math.min(bytes.length, HEADER_LENGTH))));
+      return null;
+    }
+
+    try {
+      return smileMapper.readValue(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH,
+          types[bytes[2]]);
+    } catch (IOException e) {
+      throw new SerializationException("Could not read Smile cache value", e);
+    }
+  }
+
+  private static byte typeIdOf(Object value) {
+    if (value instanceof OrderResponse) {
+      return TYPE_ORDER;
+    }
+    if (value instanceof UserServiceClient.UserResponse) {
+      return TYPE_USER;
+    }
+    if (value instanceof OrderConnection) {
+      return TYPE_ORDER_PAGE;
+    }
+    if (value instanceof List<?> list
+        && list.stream().allMatch(OrderResponse.class::isInstance)) {
+      return TYPE_ORDER_LIST;
+    }
+    return 0;
+  }
+
+  private static DistributionSummary payloadSize(String format, MeterRegistry meterRegistry) {
+    return DistributionSummary.builder("order.cache.payload.size")
+        .description("Size of serialized cache values")
+        .baseUnit("bytes")
+        .tag("format", format)
+        .register(meterRegistry);
+  }
+
+  @JsonTypeInfo(use = JsonTypeInfo.Id.NONE)
+  private abstract static class NoTypeInfo {
+
+  }
+}
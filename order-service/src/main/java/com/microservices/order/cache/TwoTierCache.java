@@ -0,0 +1,248 @@
+package com.microservices.order.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+/**
+ * Bounded in-process L1 in front of a shared L2 (Redis) cache. Reads are served from L1 when
+ * possible and fall back to L2, promoting hits into L1. Writes and evictions go to both tiers and
+ * are broadcast so that other replicas drop their L1 copy; values loaded on a miss are not.
+ */
+public class TwoTierCache implements Cache, MultiGetCache, LoadedValueCache {
+
+  private final String name;
+  private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+  private final Cache remote;
+  private final TwoTierCacheManager manager;
+  private final MeterRegistry meterRegistry;
+
+  private final Counter l1Hits;
+  private final Counter l1Misses;
+  private final Counter l2Hits;
+  private final Counter l2Misses;
+  private final Counter l2Evictions;
+
+  TwoTierCache(String name, Cache remote, TwoTierCacheManager manager, long maximumSize,
+      Duration expireAfterWrite, MeterRegistry meterRegistry) {
+    this.name = name;
+    this.remote = remote;
+    this.manager = manager;
+    this.meterRegistry = meterRegistry;
+    this.local = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfterWrite(expireAfterWrite)
+        .removalListener((String key, Object value, RemovalCause cause) -> {
+          if (cause != RemovalCause.REPLACED) {
+            evictionCounter("l1", cause.name().toLowerCase(Locale.ROOT)).increment();
+          }
+        })
+        .build();
+
+    this.l1Hits = requestCounter("l1", "hit");
+    this.l1Misses = requestCounter("l1", "miss");
+    this.l2Hits = requestCounter("l2", "hit");
+    this.l2Misses = requestCounter("l2", "miss");
+    this.l2Evictions = evictionCounter("l2", "explicit");
+
+    Gauge.builder("order.cache.size", local,
+            com.github.benmanes.caffeine.cache.Cache::estimatedSize)
+        .description("Estimated number of entries held in the in-process cache tier")
+        .tag("cache", name)
+        .tag("tier", "l1")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  public Object getNativeCache() {
+    return remote.getNativeCache();
+  }
+
+  @Override
+  public ValueWrapper get(Object key) {
+    String localKey = localKey(key);
+    Object value = local.getIfPresent(localKey);
+    if (value != null) {
+      l1Hits.increment();
+      return new SimpleValueWrapper(value);
+    }
+    l1Misses.increment();
+
+    ValueWrapper wrapper = remote.get(key);
+    if (wrapper == null || wrapper.get() == null) {
+      l2Misses.increment();
+      return wrapper;
+    }
+
+    l2Hits.increment();
+    local.put(localKey, wrapper.get());
+    return wrapper;
+  }
+
+  @Override
+  public Map<Object, Object> getAll(Collection<?> keys) {
+    Map<Object, Object> found = new LinkedHashMap<>();
+    List<Object> misses = new ArrayList<>();
+    for (Object key : keys) {
+      Object value = local.getIfPresent(localKey(key));
+      if (value != null) {
+        found.put(key, value);
+      } else {
+        misses.add(key);
+      }
+    }
+    l1Hits.increment(found.size());
+    l1Misses.increment(misses.size());
+    if (misses.isEmpty()) {
+      return found;
+    }
+
+    Map<Object, Object> remoteHits = manager.getMultiGet().getAll(remote, misses);
+    l2Hits.increment(remoteHits.size());
+    l2Misses.increment(misses.size() - remoteHits.size());
+    remoteHits.forEach((key, value) -> local.put(localKey(key), value));
+    found.putAll(remoteHits);
+    return found;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Class<T> type) {
+    ValueWrapper wrapper = get(key);
+    Object value = wrapper != null ? wrapper.get() : null;
+    if (value != null && type != null && !type.isInstance(value)) {
+      throw new IllegalStateException(
+          "Cached value is not of required type [" + type.getName() + "]: " + value);
+    }
+    return (T) value;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> T get(Object key, Callable<T> valueLoader) {
+    ValueWrapper wrapper = get(key);
+    if (wrapper != null) {
+      return (T) wrapper.get();
+    }
+
+    T value;
+    try {
+      value = valueLoader.call();
+    } catch (Exception e) {
+      throw new ValueRetrievalException(key, valueLoader, e);
+    }
+
+    if (value != null) {
+      putLoaded(key, value);
+    }
+    return value;
+  }
+
+  // A freshly loaded value cannot be stale anywhere else, so no broadcast is needed
+  @Override
+  public void putLoaded(Object key, Object value) {
+    remote.put(key, value);
+    local.put(localKey(key), value);
+  }
+
+  @Override
+  public void put(Object key, Object value) {
+    remote.put(key, value);
+    if (value != null) {
+      local.put(localKey(key), value);
+    } else {
+      local.invalidate(localKey(key));
+    }
+    manager.broadcastEvict(name, localKey(key));
+  }
+
+  @Override
+  public ValueWrapper putIfAbsent(Object key, Object value) {
+    ValueWrapper existing = remote.putIfAbsent(key, value);
+    local.invalidate(localKey(key));
+    manager.broadcastEvict(name, localKey(key));
+    return existing;
+  }
+
+  @Override
+  public void evict(Object key) {
+    remote.evict(key);
+    l2Evictions.increment();
+    local.invalidate(localKey(key));
+    manager.broadcastEvict(name, localKey(key));
+  }
+
+  @Override
+  public boolean evictIfPresent(Object key) {
+    boolean evicted = remote.evictIfPresent(key);
+    if (evicted) {
+      l2Evictions.increment();
+    }
+    local.invalidate(localKey(key));
+    manager.broadcastEvict(name, localKey(key));
+    return evicted;
+  }
+
+  @Override
+  public void clear() {
+    remote.clear();
+    local.invalidateAll();
+    manager.broadcastClear(name);
+  }
+
+  @Override
+  public boolean invalidate() {
+    boolean invalidated = remote.invalidate();
+    local.invalidateAll();
+    manager.broadcastClear(name);
+    return invalidated;
+  }
+
+  void evictLocal(String localKey) {
+    local.invalidate(localKey);
+  }
+
+  void clearLocal() {
+    local.invalidateAll();
+  }
+
+  // L1 is keyed by the string form of the key so remote invalidations can address entries
+  private static String localKey(Object key) {
+    return String.valueOf(key);
+  }
+
+  private Counter requestCounter(String tier, String result) {
+    return Counter.builder("order.cache.requests")
+        .description("Cache lookups per tier")
+        .tag("cache", name)
+        .tag("tier", tier)
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  private Counter evictionCounter(String tier, String cause) {
+    return Counter.builder("order.cache.evictions")
+        .description("Cache evictions per tier")
+        .tag("cache", name)
+        .tag("tier", tier)
+        .tag("cause", cause)
+        .register(meterRegistry);
+  }
+}
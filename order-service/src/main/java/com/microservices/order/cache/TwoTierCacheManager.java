@@ -0,0 +1,116 @@
+package com.microservices.order.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Wraps the Redis cache manager and puts an in-process L1 in front of the configured caches. L1
+ * invalidations are exchanged between replicas over a Redis pub/sub channel.
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+  private static final String SEPARATOR = "|";
+  private static final String EVICT = "EVICT";
+  private static final String CLEAR = "CLEAR";
+
+  private final CacheManager remoteCacheManager;
+  private final Set<String> nearCacheNames;
+  private final long maximumSize;
+  private final Duration expireAfterWrite;
+  private final StringRedisTemplate redisTemplate;
+  private final String channel;
+  private final MeterRegistry meterRegistry;
+  private final RedisMultiGet multiGet;
+
+  private final String instanceId = UUID.randomUUID().toString();
+  private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+
+  public TwoTierCacheManager(CacheManager remoteCacheManager, Set<String> nearCacheNames,
+      long maximumSize, Duration expireAfterWrite, StringRedisTemplate redisTemplate,
+      String channel, MeterRegistry meterRegistry, RedisMultiGet multiGet) {
+    this.remoteCacheManager = remoteCacheManager;
+    this.nearCacheNames = nearCacheNames;
+    this.maximumSize = maximumSize;
+    this.expireAfterWrite = expireAfterWrite;
+    this.redisTemplate = redisTemplate;
+    this.channel = channel;
+    this.meterRegistry = meterRegistry;
+    this.multiGet = multiGet;
+  }
+
+  @Override
+  public Cache getCache(String name) {
+    return caches.computeIfAbsent(name, this::createCache);
+  }
+
+  @Override
+  public Collection<String> getCacheNames() {
+    return remoteCacheManager.getCacheNames();
+  }
+
+  private Cache createCache(String name) {
+    Cache remote = remoteCacheManager.getCache(name);
+    if (remote == null || !nearCacheNames.contains(name)) {
+      return remote;
+    }
+    log.info("✅ Near cache enabled for '{}' (max size: {}, ttl: {})", name, maximumSize,
+        expireAfterWrite);
+    return new TwoTierCache(name, remote, this, maximumSize, expireAfterWrite, meterRegistry);
+  }
+
+  RedisMultiGet getMultiGet() {
+    return multiGet;
+  }
+
+  void broadcastEvict(String cacheName, String key) {
+    publish(String.join(SEPARATOR, instanceId, EVICT, cacheName, key));
+  }
+
+  void broadcastClear(String cacheName) {
+    publish(String.join(SEPARATOR, instanceId, CLEAR, cacheName, ""));
+  }
+
+  private void publish(String message) {
+    try {
+      redisTemplate.convertAndSend(channel, message);
+    } catch (Exception e) {
+      // Other replicas fall back to the L1 TTL to converge
+      log.warn("Failed to broadcast cache invalidation '{}': {}", message, e.getMessage());
+    }
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\\|", 4);
+    if (parts.length < 4 || instanceId.equals(parts[0])) {
+      return;
+    }
+
+    Cache cache = caches.get(parts[2]);
+    if (!(cache instanceof TwoTierCache twoTierCache)) {
+      return;
+    }
+
+    if (CLEAR.equals(parts[1])) {
+      log.debug("🗑️ Remote invalidation cleared near cache '{}'", parts[2]);
+      twoTierCache.clearLocal();
+    } else if (EVICT.equals(parts[1])) {
+      log.debug("🗑️ Remote invalidation evicted key '{}' from near cache '{}'", parts[3],
+          parts[2]);
+      twoTierCache.evictLocal(parts[3]);
+    }
+  }
+}
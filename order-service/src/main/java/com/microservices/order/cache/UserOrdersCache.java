@@ -0,0 +1,317 @@
+package com.microservices.order.cache;
+
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Per-user order listing kept in Redis as a sorted set of order ids (score = id) plus a hash of
+ * the serialized orders. A floor marker records the lowest id down to which the set holds every
+ * order of the user (0 when it holds all of them), so pages are served from Redis only when they
+ * lie entirely above the floor. New orders are added and status changes patched in place instead
+ * of dropping the whole listing. Both bump a per-user version, so a page read from the database
+ * before such a change is not stored over it.
+ */
+@Component
+@Slf4j
+public class UserOrdersCache {
+
+  private static final String CACHE_NAME = "userOrders";
+  private static final long COMPLETE = 0L;
+  private static final long UNKNOWN_VERSION = -1L;
+
+  private final RedisTemplate<String, String> redisTemplate;
+  private final Duration timeToLive;
+
+  private final Counter hits;
+  private final Counter misses;
+
+  public UserOrdersCache(RedisConnectionFactory connectionFactory,
+      RedisSerializer<Object> cacheValueSerializer,
+      MeterRegistry meterRegistry,
+      @Value("${order.cache.user-orders.ttl:10m}") Duration timeToLive) {
+    this.timeToLive = timeToLive;
+
+    RedisTemplate<String, String> template = new RedisTemplate<>();
+    template.setConnectionFactory(connectionFactory);
+    template.setKeySerializer(StringRedisSerializer.UTF_8);
+    template.setValueSerializer(StringRedisSerializer.UTF_8);
+    template.setHashKeySerializer(StringRedisSerializer.UTF_8);
+    template.setHashValueSerializer(cacheValueSerializer);
+    template.afterPropertiesSet();
+    this.redisTemplate = template;
+
+    this.hits = requestCounter("hit", meterRegistry);
+    this.misses = requestCounter("miss", meterRegistry);
+  }
+
+  /**
+   * Returns the page of orders below {@code afterId} (newest first), or empty if the cached
+   * listing does not cover it.
+   */
+  public Optional<Page> readPage(Long userId, int pageSize, Long afterId) {
+    try {
+      String floorValue = redisTemplate.opsForValue().get(floorKey(userId));
+      if (floorValue == null) {
+        misses.increment();
+        return Optional.empty();
+      }
+      long floor = Long.parseLong(floorValue);
+
+      double max = afterId == null ? Double.POSITIVE_INFINITY : afterId - 1;
+      Set<String> ids = redisTemplate.opsForZSet()
+          .reverseRangeByScore(indexKey(userId), floor, max, 0, pageSize + 1);
+      if (ids == null) {
+        misses.increment();
+        return Optional.empty();
+      }
+
+      // A short page is only trustworthy if nothing older exists outside the cache
+      boolean hasNextPage = ids.size() > pageSize;
+      if (!hasNextPage && floor != COMPLETE) {
+        misses.increment();
+        return Optional.empty();
+      }
+
+      List<String> pageIds = ids.stream().limit(pageSize).collect(Collectors.toList());
+      List<Object> values = redisTemplate.<String, Object>opsForHash()
+          .multiGet(ordersKey(userId), pageIds);
+      List<OrderResponse> orders = new ArrayList<>(values.size());
+      for (Object value : values) {
+        if (!(value instanceof OrderResponse order)) {
+          misses.increment();
+          return Optional.empty();
+        }
+        orders.add(order);
+      }
+
+      hits.increment();
+      return Optional.of(new Page(orders, hasNextPage));
+    } catch (DataAccessException e) {
+      log.warn("Failed to read cached orders for user {}: {}", userId, e.getMessage());
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Returns the version of the user's listing, to be read before loading a page from the database
+   * and passed to {@link #storePage}.
+   */
+  public long version(Long userId) {
+    try {
+      return parseVersion(redisTemplate.opsForValue().get(versionKey(userId)));
+    } catch (DataAccessException e) {
+      log.warn("Failed to read cached orders version for user {}: {}", userId, e.getMessage());
+      return UNKNOWN_VERSION;
+    }
+  }
+
+  /**
+   * Stores a page loaded from the database. It is merged only when it continues the cached
+   * listing (or starts it), so the covered range stays contiguous, and only if no order of the
+   * user was added or changed since {@code version} was read.
+   */
+  public void storePage(Long userId, long version, Long afterId, List<OrderResponse> orders,
+      boolean hasNextPage) {
+    if (version == UNKNOWN_VERSION) {
+      return;
+    }
+    try {
+      List<Object> stored = redisTemplate.execute(new SessionCallback<List<Object>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Object> execute(RedisOperations operations) throws DataAccessException {
+          RedisOperations<String, String> ops = operations;
+          ops.watch(List.of(versionKey(userId), floorKey(userId)));
+
+          String floorValue = ops.opsForValue().get(floorKey(userId));
+          Long currentFloor = floorValue != null ? Long.valueOf(floorValue) : null;
+          if (parseVersion(ops.opsForValue().get(versionKey(userId))) != version
+              || afterId != null && (currentFloor == null || afterId < currentFloor)) {
+            ops.unwatch();
+            return null;
+          }
+
+          long pageFloor = hasNextPage
+              ? orders.stream().mapToLong(order -> Long.parseLong(order.getId())).min()
+                  .orElse(COMPLETE)
+              : COMPLETE;
+          long floor = currentFloor == null ? pageFloor : Math.min(currentFloor, pageFloor);
+
+          ops.multi();
+          write(ops, userId, orders);
+          ops.opsForValue().set(floorKey(userId), String.valueOf(floor));
+          ops.expire(indexKey(userId), timeToLive);
+          ops.expire(ordersKey(userId), timeToLive);
+          ops.expire(floorKey(userId), timeToLive);
+          return ops.exec();
+        }
+      });
+      if (stored == null || stored.isEmpty()) {
+        log.debug("Skipped caching a stale page of orders for user {}", userId);
+      }
+    } catch (DataAccessException e) {
+      log.warn("Failed to cache orders for user {}: {}", userId, e.getMessage());
+    }
+  }
+
+  /**
+   * Adds a newly created order to the user's listing once the surrounding transaction commits.
+   */
+  public void prepend(Long userId, OrderResponse order) {
+    afterCommit(() -> {
+      bumpVersion(userId);
+      // The listing keeps the lifetime it was stored with
+      Long ttl = redisTemplate.getExpire(floorKey(userId), TimeUnit.MILLISECONDS);
+      if (ttl != null && ttl > 0) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+          @Override
+          @SuppressWarnings("unchecked")
+          public Object execute(RedisOperations operations) throws DataAccessException {
+            RedisOperations<String, String> ops = operations;
+            write(ops, userId, List.of(order));
+            ops.expire(indexKey(userId), Duration.ofMillis(ttl));
+            ops.expire(ordersKey(userId), Duration.ofMillis(ttl));
+            return null;
+          }
+        });
+        log.debug("Prepended order {} to cached orders of user {}", order.getId(), userId);
+      }
+    });
+  }
+
+  /**
+   * Updates the status of a cached order once the surrounding transaction commits.
+   */
+  public void patchStatus(Long userId, Long orderId, String status) {
+    afterCommit(() -> {
+      bumpVersion(userId);
+      String field = String.valueOf(orderId);
+      List<Object> patched = redisTemplate.execute(new SessionCallback<List<Object>>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        public List<Object> execute(RedisOperations operations) throws DataAccessException {
+          RedisOperations<String, String> ops = operations;
+          // Expiry or a concurrent write of the hash aborts the exec, so the patch never
+          // recreates an expired listing or overwrites a newer copy of the order
+          ops.watch(ordersKey(userId));
+          Object cached = ops.<String, Object>opsForHash().get(ordersKey(userId), field);
+          if (!(cached instanceof OrderResponse order)) {
+            ops.unwatch();
+            return null;
+          }
+          order.setStatus(status);
+          ops.multi();
+          ops.<String, Object>opsForHash().put(ordersKey(userId), field, order);
+          return ops.exec();
+        }
+      });
+      if (patched != null && patched.isEmpty()) {
+        // Lost the race; drop the order so the next read loads it from the database
+        redisTemplate.<String, Object>opsForHash().delete(ordersKey(userId), field);
+        log.debug("Evicted cached order {} after a concurrent change", orderId);
+      } else if (patched != null) {
+        log.debug("Patched status of cached order {} to {}", orderId, status);
+      }
+    });
+  }
+
+  private static void write(RedisOperations<String, String> ops, Long userId,
+      List<OrderResponse> orders) {
+    if (orders.isEmpty()) {
+      return;
+    }
+    Set<ZSetOperations.TypedTuple<String>> index = orders.stream()
+        .map(order -> (ZSetOperations.TypedTuple<String>) new DefaultTypedTuple<>(order.getId(),
+            Double.valueOf(order.getId())))
+        .collect(Collectors.toSet());
+    Map<String, Object> values = new HashMap<>();
+    orders.forEach(order -> values.put(order.getId(), order));
+
+    ops.opsForZSet().add(indexKey(userId), index);
+    ops.<String, Object>opsForHash().putAll(ordersKey(userId), values);
+  }
+
+  private void bumpVersion(Long userId) {
+    redisTemplate.opsForValue().increment(versionKey(userId));
+    redisTemplate.expire(versionKey(userId), timeToLive);
+  }
+
+  private static long parseVersion(String value) {
+    return value != null ? Long.parseLong(value) : 0L;
+  }
+
+  private void afterCommit(Runnable action) {
+    Runnable guarded = () -> {
+      try {
+        action.run();
+      } catch (DataAccessException e) {
+        log.warn("Failed to update cached user orders: {}", e.getMessage());
+      }
+    };
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          guarded.run();
+        }
+      });
+    } else {
+      guarded.run();
+    }
+  }
+
+  // Hash tags keep the keys of one user in the same cluster slot for the pipeline
+  private static String indexKey(Long userId) {
+    return "order-service:" + CACHE_NAME + ":{" + userId + "}:index";
+  }
+
+  private static String ordersKey(Long userId) {
+    return "order-service:" + CACHE_NAME + ":{" + userId + "}:orders";
+  }
+
+  private static String floorKey(Long userId) {
+    return "order-service:" + CACHE_NAME + ":{" + userId + "}:floor";
+  }
+
+  private static String versionKey(Long userId) {
+    return "order-service:" + CACHE_NAME + ":{" + userId + "}:version";
+  }
+
+  private static Counter requestCounter(String result, MeterRegistry meterRegistry) {
+    return Counter.builder("order.cache.requests")
+        .description("Cache lookups per tier")
+        .tag("cache", CACHE_NAME)
+        .tag("tier", "l2")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+
+  public record Page(List<OrderResponse> orders, boolean hasNextPage) {
+
+  }
+}
@@ -0,0 +1,87 @@
+package com.microservices.order.client;
+
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AIMD limit on concurrent calls to one downstream service. Every call that completes within the
+ * latency threshold while the limit is in use raises the limit by {@code 1 / limit} (about +1 per
+ * round trip); a slow or failed call multiplies it by the backoff ratio. Callers over the limit
+ * wait up to their queue timeout for a slot.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final long latencyThresholdNanos;
+  private final double backoffRatio;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition slotFreed = lock.newCondition();
+  // Written under the lock, read without it by the gauges
+  private volatile double limit;
+  private volatile int inFlight;
+
+  public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+      Duration latencyThreshold, double backoffRatio) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.latencyThresholdNanos = latencyThreshold.toNanos();
+    this.backoffRatio = backoffRatio;
+    this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+  }
+
+  public boolean tryAcquire(Duration queueTimeout) throws InterruptedException {
+    lock.lock();
+    try {
+      long remaining = queueTimeout.toNanos();
+      while (inFlight >= (int) limit) {
+        if (remaining <= 0) {
+          return false;
+        }
+        remaining = slotFreed.awaitNanos(remaining);
+      }
+      inFlight++;
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Returns the slot of a finished call. {@code dropped} marks calls that failed in a way that
+   * points at an overloaded service (I/O errors, 429, 5xx).
+   */
+  public void release(long latencyNanos, boolean dropped) {
+    lock.lock();
+    try {
+      // A limit that was not in use tells nothing about the service's capacity
+      boolean limitInUse = inFlight * 2 >= limit;
+      inFlight--;
+
+      int previous = (int) limit;
+      if (dropped || latencyNanos > latencyThresholdNanos) {
+        limit = Math.max(minLimit, limit * backoffRatio);
+      } else if (limitInUse) {
+        limit = Math.min(maxLimit, limit + 1 / limit);
+      }
+
+      if ((int) limit > previous) {
+        slotFreed.signalAll();
+      } else {
+        slotFreed.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight;
+  }
+}
@@ -0,0 +1,10 @@
+package com.microservices.order.client;
+
+import org.springframework.web.client.RestClientException;
+
+public class ConcurrencyLimitExceededException extends RestClientException {
+
+  public ConcurrencyLimitExceededException(String message) {
+    super(message);
+  }
+}
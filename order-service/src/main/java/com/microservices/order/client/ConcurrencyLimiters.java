@@ -0,0 +1,103 @@
+package com.microservices.order.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+/**
+ * One {@link AdaptiveConcurrencyLimiter} per downstream service, applied as a RestClient
+ * interceptor. Settings come from {@code order.client.concurrency.*} and can be overridden per
+ * service under {@code order.client.concurrency.services.<service>.*}.
+ */
+@Component
+@Slf4j
+public class ConcurrencyLimiters {
+
+  private static final String PREFIX = "order.client.concurrency.";
+
+  private final Environment environment;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, ClientHttpRequestInterceptor> interceptors =
+      new ConcurrentHashMap<>();
+
+  public ConcurrencyLimiters(Environment environment, MeterRegistry meterRegistry) {
+    this.environment = environment;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public ClientHttpRequestInterceptor interceptorFor(String service) {
+    return interceptors.computeIfAbsent(service, this::createInterceptor);
+  }
+
+  private ClientHttpRequestInterceptor createInterceptor(String service) {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+        setting(service, "initial-limit", Integer.class, 20),
+        setting(service, "min-limit", Integer.class, 2),
+        setting(service, "max-limit", Integer.class, 200),
+        setting(service, "latency-threshold", Duration.class, Duration.ofMillis(500)),
+        setting(service, "backoff-ratio", Double.class, 0.9));
+    Duration queueTimeout = setting(service, "queue-timeout", Duration.class,
+        Duration.ofMillis(50));
+
+    Gauge.builder("order.client.concurrency.limit", limiter,
+            AdaptiveConcurrencyLimiter::getLimit)
+        .description("Current adaptive limit of concurrent calls to a downstream service")
+        .tag("service", service)
+        .register(meterRegistry);
+    Gauge.builder("order.client.concurrency.in-flight", limiter,
+            AdaptiveConcurrencyLimiter::getInFlight)
+        .description("Calls to a downstream service currently in flight")
+        .tag("service", service)
+        .register(meterRegistry);
+    Counter rejected = Counter.builder("order.client.concurrency.rejected")
+        .description("Calls rejected because the service's concurrency limit was reached")
+        .tag("service", service)
+        .register(meterRegistry);
+
+    log.info("✅ Adaptive concurrency limit for {} starts at {}", service, limiter.getLimit());
+
+    return (request, body, execution) -> {
+      boolean acquired;
+      try {
+        acquired = limiter.tryAcquire(queueTimeout);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while waiting for a call slot to " + service, e);
+      }
+      if (!acquired) {
+        rejected.increment();
+        throw new ConcurrencyLimitExceededException("Concurrency limit of "
+            + limiter.getLimit() + " reached for " + service);
+      }
+
+      long startNanos = System.nanoTime();
+      boolean dropped = true;
+      try {
+        ClientHttpResponse response = execution.execute(request, body);
+        dropped = isOverloaded(response.getStatusCode());
+        return response;
+      } finally {
+        limiter.release(System.nanoTime() - startNanos, dropped);
+      }
+    };
+  }
+
+  private static boolean isOverloaded(HttpStatusCode status) {
+    return status.is5xxServerError() || status.value() == 429;
+  }
+
+  private <T> T setting(String service, String name, Class<T> type, T defaultValue) {
+    T value = environment.getProperty(PREFIX + "services." + service + "." + name, type);
+    return value != null ? value : environment.getProperty(PREFIX + name, type, defaultValue);
+  }
+}
@@ -2,7 +2,10 @@ package com.microservices.order.client;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
+import java.util.List;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
@@ -16,8 +19,13 @@ public class InventoryServiceClient {
 
   public InventoryServiceClient(RestClient.Builder restClientBuilder,
       @Value("${inventory.service.url}") String inventoryServiceUrl,
-      Tracer tracer) {
-    this.restClient = restClientBuilder.baseUrl(inventoryServiceUrl).build();
+      Tracer tracer,
+      ConcurrencyLimiters concurrencyLimiters) {
+    // Cloned so the shared builder does not collect every client's base URL and interceptors
+    this.restClient = restClientBuilder.clone()
+        .baseUrl(inventoryServiceUrl)
+        .requestInterceptor(concurrencyLimiters.interceptorFor("inventory-service"))
+        .build();
     this.inventoryServiceUrl = inventoryServiceUrl;
     this.tracer = tracer;
   }
@@ -43,6 +51,131 @@ public class InventoryServiceClient {
     }
   }
 
+  public BatchInventoryResponse checkInventoryBatch(List<InventoryCheckItem> items) {
+    Span span = tracer.spanBuilder("inventory-check-batch")
+        .setAttribute("items.count", items.size())
+        .startSpan();
+
+    try {
+
+      return restClient
+          .post()
+          .uri("/api/inventory/check/batch")
+          .body(new BatchInventoryCheckRequest(items))
+          .retrieve()
+          .body(BatchInventoryResponse.class);
+    } finally {
+      span.end();
+    }
+  }
+
+  public BulkReservationResponse reserveInventoryBulk(String orderId,
+      List<InventoryCheckItem> items) {
+    Span span = tracer.spanBuilder("inventory-reserve-bulk")
+        .setAttribute("order.id", orderId)
+        .setAttribute("items.count", items.size())
+        .startSpan();
+
+    try {
+
+      return restClient
+          .post()
+          .uri("/api/inventory/reservations/bulk")
+          .body(new BulkReservationRequest(orderId, items))
+          .retrieve()
+          .body(BulkReservationResponse.class);
+    } finally {
+      span.end();
+    }
+  }
+
+  public void releaseInventoryBulk(String orderId) {
+    Span span = tracer.spanBuilder("inventory-release-bulk")
+        .setAttribute("order.id", orderId)
+        .startSpan();
+
+    try {
+
+      restClient
+          .delete()
+          .uri("/api/inventory/reservations/bulk/{orderId}", orderId)
+          .retrieve()
+          .toBodilessEntity();
+    } finally {
+      span.end();
+    }
+  }
+
+  public void fulfillInventoryBulk(String orderId) {
+    Span span = tracer.spanBuilder("inventory-fulfill-bulk")
+        .setAttribute("order.id", orderId)
+        .startSpan();
+
+    try {
+
+      restClient
+          .post()
+          .uri("/api/inventory/reservations/bulk/{orderId}/fulfill", orderId)
+          .retrieve()
+          .toBodilessEntity();
+    } finally {
+      span.end();
+    }
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class InventoryCheckItem {
+
+    private Long productId;
+    private Integer quantity;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BatchInventoryCheckRequest {
+
+    private List<InventoryCheckItem> items;
+  }
+
+  @Data
+  public static class BatchInventoryResponse {
+
+    private List<InventoryResponse> items;
+    private List<Long> missingProductIds;
+    private boolean allAvailable;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BulkReservationRequest {
+
+    private String orderId;
+    private List<InventoryCheckItem> items;
+  }
+
+  @Data
+  public static class BulkReservationResponse {
+
+    private String orderId;
+    private boolean reserved;
+    private boolean released;
+    private List<ReservedItem> items;
+    private List<Long> unavailableProductIds;
+    private List<Long> missingProductIds;
+  }
+
+  @Data
+  public static class ReservedItem {
+
+    private Long productId;
+    private Integer quantity;
+    private Long reservationId;
+  }
+
   @Data
   public static class InventoryResponse {
 
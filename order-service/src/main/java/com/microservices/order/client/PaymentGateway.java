@@ -0,0 +1,39 @@
+package com.microservices.order.client;
+
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Port to the payment provider. Implementations must not block the calling thread: the returned
+ * future completes once the provider has answered.
+ */
+public interface PaymentGateway {
+
+  CompletableFuture<PaymentResult> charge(PaymentRequest request);
+
+  CompletableFuture<RefundResult> refund(RefundRequest request);
+
+  record PaymentRequest(String orderId, Long userId, BigDecimal amount, String currency,
+                        String paymentMethod) {
+
+  }
+
+  record RefundRequest(String orderId, String transactionId, String reason) {
+
+  }
+
+  record RefundResult(String refundId) {
+
+  }
+
+  record PaymentResult(boolean approved, String transactionId, String declineReason) {
+
+    public static PaymentResult approved(String transactionId) {
+      return new PaymentResult(true, transactionId, null);
+    }
+
+    public static PaymentResult declined(String reason) {
+      return new PaymentResult(false, null, reason);
+    }
+  }
+}
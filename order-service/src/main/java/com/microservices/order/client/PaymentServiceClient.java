@@ -17,8 +17,13 @@ public class PaymentServiceClient {
 
   public PaymentServiceClient(RestClient.Builder restClientBuilder,
       @Value("${payment.service.url}") String paymentServiceUrl,
-      Tracer tracer) {
-    this.restClient = restClientBuilder.baseUrl(paymentServiceUrl).build();
+      Tracer tracer,
+      ConcurrencyLimiters concurrencyLimiters) {
+    // Cloned so the shared builder does not collect every client's base URL and interceptors
+    this.restClient = restClientBuilder.clone()
+        .baseUrl(paymentServiceUrl)
+        .requestInterceptor(concurrencyLimiters.interceptorFor("payment-service"))
+        .build();
     this.paymentServiceUrl = paymentServiceUrl;
     this.tracer = tracer;
   }
@@ -0,0 +1,89 @@
+package com.microservices.order.client;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-process payment provider for local runs and load tests. Each charge completes after a delay
+ * drawn from the configured latency distribution; no thread waits in the meantime.
+ */
+@Component
+@ConditionalOnProperty(name = "order.payment.gateway", havingValue = "simulated",
+    matchIfMissing = true)
+@Slf4j
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+  private final LatencyDistribution distribution;
+  private final long meanMillis;
+  private final long minMillis;
+  private final long maxMillis;
+  private final double sigma;
+  private final double failureRate;
+
+  public SimulatedPaymentGateway(
+      @Value("${order.payment.simulated.latency.distribution:fixed}") String distribution,
+      @Value("${order.payment.simulated.latency.mean:100ms}") Duration mean,
+      @Value("${order.payment.simulated.latency.min:0ms}") Duration min,
+      @Value("${order.payment.simulated.latency.max:5s}") Duration max,
+      @Value("${order.payment.simulated.latency.sigma:0.5}") double sigma,
+      @Value("${order.payment.simulated.failure-rate:0.0}") double failureRate) {
+    this.distribution = LatencyDistribution.valueOf(
+        distribution.trim().toUpperCase().replace('-', '_'));
+    this.meanMillis = mean.toMillis();
+    this.minMillis = min.toMillis();
+    this.maxMillis = max.toMillis();
+    this.sigma = sigma;
+    this.failureRate = failureRate;
+    log.info("💳 Simulated payment gateway: {} latency, mean {}ms, failure rate {}",
+        this.distribution, meanMillis, failureRate);
+  }
+
+  @Override
+  public CompletableFuture<PaymentResult> charge(PaymentRequest request) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    long delay = Math.max(minMillis, Math.min(maxMillis, sampleMillis(random)));
+    boolean declined = random.nextDouble() < failureRate;
+
+    Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+    return CompletableFuture.supplyAsync(() -> declined
+        ? PaymentResult.declined("Payment declined by provider")
+        : PaymentResult.approved(generateId("TXN")), delayed);
+  }
+
+  @Override
+  public CompletableFuture<RefundResult> refund(RefundRequest request) {
+    long delay = Math.max(minMillis,
+        Math.min(maxMillis, sampleMillis(ThreadLocalRandom.current())));
+    Executor delayed = CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS);
+    return CompletableFuture.supplyAsync(() -> new RefundResult(generateId("RFD")), delayed);
+  }
+
+  private long sampleMillis(ThreadLocalRandom random) {
+    return switch (distribution) {
+      case FIXED -> meanMillis;
+      // Symmetric around the mean, from min up to 2 * mean - min
+      case UNIFORM -> minMillis + (long) (random.nextDouble() * 2 * (meanMillis - minMillis));
+      case EXPONENTIAL -> (long) (-meanMillis * Math.log(1 - random.nextDouble()));
+      // mu chosen so the distribution's mean is meanMillis; sigma controls the tail
+      case LOG_NORMAL -> (long) Math.exp(
+          Math.log(Math.max(1, meanMillis)) - sigma * sigma / 2 + sigma * random.nextGaussian());
+    };
+  }
+
+  private static String generateId(String prefix) {
+    return prefix + "-" + System.currentTimeMillis() + "-"
+        + UUID.randomUUID().toString().substring(0, 8);
+  }
+
+  enum LatencyDistribution {
+    FIXED, UNIFORM, EXPONENTIAL, LOG_NORMAL
+  }
+}
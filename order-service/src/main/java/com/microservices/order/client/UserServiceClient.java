@@ -2,8 +2,11 @@ package com.microservices.order.client;
 
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
+import java.util.Collection;
+import java.util.List;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
 
@@ -29,6 +32,25 @@ public class UserServiceClient {
     }
   }
 
+  public List<UserResponse> getUsersByIds(Collection<Long> userIds) {
+    Span span = tracer.spanBuilder("user-lookup-batch")
+        .setAttribute("users.count", userIds.size())
+        .startSpan();
+
+    try {
+      List<UserResponse> users = restClient.get()
+          .uri(uriBuilder -> uriBuilder.path("/api/users/batch")
+              .queryParam("ids", userIds)
+              .build())
+          .retrieve()
+          .body(new ParameterizedTypeReference<List<UserResponse>>() {
+          });
+      return users != null ? users : List.of();
+    } finally {
+      span.end();
+    }
+  }
+
   @Data
   public static class UserResponse {
 
@@ -0,0 +1,41 @@
+package com.microservices.order.configuration;
+
+import com.microservices.order.aggregate.MeteredSnapshotTriggerDefinition;
+import com.microservices.order.cache.CaffeineAxonCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.caching.Cache;
+import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.Snapshotter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class AggregateConfiguration {
+
+  // Referenced by name from @Aggregate on OrderAggregate. Snapshots are stored through the
+  // event serializer (Jackson) and discarded when the aggregate's @Revision changes.
+  @Bean
+  public SnapshotTriggerDefinition orderSnapshotTriggerDefinition(Snapshotter snapshotter,
+      MeterRegistry meterRegistry,
+      @Value("${order.aggregate.snapshot.threshold:50}") int threshold) {
+    log.info("✅ OrderAggregate snapshots every {} events", threshold);
+    return new MeteredSnapshotTriggerDefinition(
+        new EventCountSnapshotTriggerDefinition(snapshotter, threshold), meterRegistry);
+  }
+
+  // Back-to-back commands on the same order reuse the aggregate instead of re-reading its events
+  @Bean
+  public Cache orderAggregateCache(MeterRegistry meterRegistry,
+      @Value("${order.aggregate.cache.maximum-size:10000}") long maximumSize,
+      @Value("${order.aggregate.cache.expire-after-access:10m}") Duration expireAfterAccess) {
+    log.info("✅ OrderAggregate cache configured (max {} entries, expire after {} idle)",
+        maximumSize, expireAfterAccess);
+    return new CaffeineAxonCache("orderAggregates", maximumSize, expireAfterAccess,
+        meterRegistry);
+  }
+}
@@ -4,19 +4,43 @@ import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.order.cache.CoalescingCacheManager;
+import com.microservices.order.cache.RedisMultiGet;
+import com.microservices.order.cache.SmileRedisSerializer;
+import com.microservices.order.cache.TwoTierCacheManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.cache.RedisCacheManagerBuilderCustomizer;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
@@ -24,13 +48,32 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Slf4j
 public class CacheConfig {
 
+  private static final Duration DEFAULT_TTL = Duration.ofMinutes(10);
+
+  // Cached JSON may only name our own types and the JDK types they are built from
+  private static final PolymorphicTypeValidator CACHE_TYPE_VALIDATOR =
+      BasicPolymorphicTypeValidator.builder()
+          .allowIfSubType("com.microservices.")
+          // List.of, Collections.emptyList and friends
+          .allowIfSubType("java.util.ImmutableCollections$")
+          .allowIfSubType("java.util.Collections$")
+          .allowIfSubType(ArrayList.class)
+          .allowIfSubType(LinkedList.class)
+          .allowIfSubType(HashMap.class)
+          .allowIfSubType(LinkedHashMap.class)
+          .allowIfSubType(HashSet.class)
+          .allowIfSubType(LinkedHashSet.class)
+          .allowIfSubType(BigDecimal.class)
+          .allowIfSubType(BigInteger.class)
+          .build();
+
   @Bean
   public ObjectMapper redisObjectMapper() {
     ObjectMapper mapper = new ObjectMapper();
 
     // ✅ Configure type information to avoid LinkedHashMap issue
     mapper.activateDefaultTyping(
-        LaissezFaireSubTypeValidator.instance,
+        CACHE_TYPE_VALIDATOR,
         ObjectMapper.DefaultTyping.NON_FINAL,
         JsonTypeInfo.As.PROPERTY);
 
@@ -63,19 +106,32 @@ public class CacheConfig {
   }
 
   @Bean
-  public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer() {
-    return (builder) -> {
-      // Use the same ObjectMapper for cache serialization
-      GenericJackson2JsonRedisSerializer serializer = new GenericJackson2JsonRedisSerializer(
-          redisObjectMapper());
+  public RedisSerializer<Object> cacheValueSerializer(MeterRegistry meterRegistry,
+      @Value("${order.cache.serializer:smile}") String format) {
+    GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(
+        redisObjectMapper());
+
+    if ("json".equalsIgnoreCase(format)) {
+      log.info("✅ Cache values serialized as type-annotated JSON");
+      return jsonSerializer;
+    }
+
+    // JSON stays the fallback for types without a Smile mapping and for entries written before
+    log.info("✅ Cache values serialized as Smile with JSON fallback");
+    return new SmileRedisSerializer(jsonSerializer, meterRegistry);
+  }
 
+  @Bean
+  public RedisCacheManagerBuilderCustomizer redisCacheManagerBuilderCustomizer(
+      RedisSerializer<Object> cacheValueSerializer) {
+    return (builder) -> {
       // Default cache configuration
       RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-          .entryTtl(Duration.ofMinutes(10))
+          .entryTtl(DEFAULT_TTL)
           .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
               new StringRedisSerializer()))
-          .serializeValuesWith(
-              RedisSerializationContext.SerializationPair.fromSerializer(serializer))
+          .serializeValuesWith(RedisSerializationContext.SerializationPair
+              .fromSerializer(cacheValueSerializer))
           .disableCachingNullValues();
 
       // Specific cache configurations
@@ -86,8 +142,17 @@ public class CacheConfig {
                   .entryTtl(Duration.ofMinutes(15))  // Orders cached for 15 minutes
                   .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
                       new StringRedisSerializer()))
-                  .serializeValuesWith(
-                      RedisSerializationContext.SerializationPair.fromSerializer(serializer))
+                  .serializeValuesWith(RedisSerializationContext.SerializationPair
+                      .fromSerializer(cacheValueSerializer))
+                  .prefixCacheNameWith("order-service:")
+                  .disableCachingNullValues())
+          .withCacheConfiguration("sagaOrders",
+              RedisCacheConfiguration.defaultCacheConfig()
+                  .entryTtl(Duration.ofMinutes(15))
+                  .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                      new StringRedisSerializer()))
+                  .serializeValuesWith(RedisSerializationContext.SerializationPair
+                      .fromSerializer(cacheValueSerializer))
                   .prefixCacheNameWith("order-service:")
                   .disableCachingNullValues())
           .withCacheConfiguration("users",
@@ -95,12 +160,64 @@ public class CacheConfig {
                   .entryTtl(Duration.ofMinutes(30))  // Users cached for 30 minutes
                   .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(
                       new StringRedisSerializer()))
-                  .serializeValuesWith(
-                      RedisSerializationContext.SerializationPair.fromSerializer(serializer))
+                  .serializeValuesWith(RedisSerializationContext.SerializationPair
+                      .fromSerializer(cacheValueSerializer))
                   .prefixCacheNameWith("order-service:")
                   .disableCachingNullValues());
 
-      log.info("✅ Redis cache manager configured with type-aware serialization");
+      log.info("✅ Redis cache manager configured");
     };
   }
+
+  @Bean
+  public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+      ObjectProvider<RedisCacheManagerBuilderCustomizer> customizers,
+      StringRedisTemplate stringRedisTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${order.cache.near.enabled:true}") boolean nearCacheEnabled,
+      @Value("${order.cache.near.caches:orders,users}") List<String> nearCaches,
+      @Value("${order.cache.near.maximum-size:10000}") long maximumSize,
+      @Value("${order.cache.near.expire-after-write:60s}") Duration expireAfterWrite,
+      @Value("${order.cache.near.channel:order-service:cache-invalidation}") String channel,
+      @Value("${order.cache.early-refresh.beta:1.0}") double earlyRefreshBeta) {
+    RedisCacheManager.RedisCacheManagerBuilder builder =
+        RedisCacheManager.builder(connectionFactory);
+    customizers.orderedStream().forEach(customizer -> customizer.customize(builder));
+    RedisCacheManager redisCacheManager = builder.build();
+    redisCacheManager.initializeCaches();
+
+    RedisMultiGet multiGet = new RedisMultiGet(connectionFactory);
+    CacheManager targetCacheManager = redisCacheManager;
+    if (nearCacheEnabled) {
+      log.info("✅ Two-tier cache manager configured (near caches: {}, invalidation channel: {})",
+          nearCaches, channel);
+      targetCacheManager = new TwoTierCacheManager(redisCacheManager, new HashSet<>(nearCaches),
+          maximumSize, expireAfterWrite, stringRedisTemplate, channel, meterRegistry, multiGet);
+    }
+
+    // Redis TTLs drive the early refresh window; caches are created before this is resolved
+    log.info("✅ Single-flight cache loading enabled (early refresh beta: {})", earlyRefreshBeta);
+    return new CoalescingCacheManager(targetCacheManager,
+        name -> Optional.ofNullable(redisCacheManager.getCacheConfigurations().get(name))
+            .map(config -> config.getTtlFunction().getTimeToLive(name, null))
+            .orElse(DEFAULT_TTL),
+        earlyRefreshBeta, maximumSize, multiGet, meterRegistry);
+  }
+
+  @Bean
+  public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+      RedisConnectionFactory connectionFactory, CacheManager cacheManager,
+      @Value("${order.cache.near.channel:order-service:cache-invalidation}") String channel) {
+    RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+    container.setConnectionFactory(connectionFactory);
+
+    CacheManager target = cacheManager instanceof CoalescingCacheManager coalescing
+        ? coalescing.getTargetCacheManager()
+        : cacheManager;
+    if (target instanceof TwoTierCacheManager twoTierCacheManager) {
+      container.addMessageListener(twoTierCacheManager, new ChannelTopic(channel));
+      log.info("✅ Subscribed to cache invalidation channel '{}'", channel);
+    }
+    return container;
+  }
 }
@@ -4,12 +4,14 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import javax.sql.DataSource;
+import org.axonframework.common.jdbc.UnitOfWorkAwareConnectionProviderWrapper;
 import org.axonframework.eventhandling.tokenstore.TokenStore;
-import org.axonframework.eventhandling.tokenstore.inmemory.InMemoryTokenStore;
-import org.axonframework.modelling.saga.repository.SagaStore;
-import org.axonframework.modelling.saga.repository.inmemory.InMemorySagaStore;
+import org.axonframework.eventhandling.tokenstore.jdbc.JdbcTokenStore;
+import org.axonframework.eventhandling.tokenstore.jdbc.TokenSchema;
 import org.axonframework.serialization.Serializer;
 import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.spring.jdbc.SpringDataSourceConnectionProvider;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -36,23 +38,27 @@ public class CustomAxonServerConfiguration {
     return objectMapper;
   }
 
-  // Override TokenStore to prevent JPA usage
+  // Processor positions live in Postgres (token_entry) next to the sagas, so a restart resumes
+  // where each processor stopped instead of re-handling the event store from the tail
   @Bean
   @Primary
   @ConditionalOnProperty(value = "axon.axonserver.enabled", havingValue = "true")
-  public TokenStore customTokenStore() {
-    // Axon Server handles token storage internally
-    // Return InMemoryTokenStore as fallback (tokens will be managed by Axon Server)
-    return new InMemoryTokenStore();
-  }
+  public TokenStore customTokenStore(DataSource dataSource, Serializer serializer) {
+    TokenSchema schema = TokenSchema.builder()
+        .setTokenTable("token_entry")
+        .setProcessorNameColumn("processor_name")
+        .setSegmentColumn("segment")
+        .setTokenColumn("token")
+        .setTokenTypeColumn("token_type")
+        .setTimestampColumn("timestamp")
+        .setOwnerColumn("owner")
+        .build();
 
-  // Override SagaStore to prevent JPA usage
-  @Bean
-  @Primary
-  @ConditionalOnProperty(value = "axon.axonserver.enabled", havingValue = "true")
-  public SagaStore customSagaStore() {
-    // Return InMemorySagaStore as fallback (sagas will be managed by Axon Server)
-    return new InMemorySagaStore();
+    return JdbcTokenStore.builder()
+        .connectionProvider(new UnitOfWorkAwareConnectionProviderWrapper(
+            new SpringDataSourceConnectionProvider(dataSource)))
+        .schema(schema)
+        .serializer(serializer)
+        .build();
   }
-
 }
@@ -0,0 +1,20 @@
+package com.microservices.order.configuration;
+
+import com.microservices.order.service.EventProcessorMetrics;
+import org.axonframework.config.ConfigurerModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class EventProcessorConfiguration {
+
+  public static final String SAGA_PROCESSOR = "OrderProcessingSagaProcessor";
+  public static final String PROJECTION_PROCESSOR = "OrderProjectionProcessor";
+
+  @Bean
+  public ConfigurerModule eventProcessorConfigurerModule(EventProcessorMetrics metrics) {
+    return configurer -> configurer.eventProcessing(processing -> processing
+        .registerHandlerInterceptor(PROJECTION_PROCESSOR,
+            config -> metrics.handledEventsInterceptor(PROJECTION_PROCESSOR)));
+  }
+}
@@ -0,0 +1,159 @@
+package com.microservices.order.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+/**
+ * Request factory shared by every RestClient of the service. By default calls go through one
+ * pooled Apache HttpClient with keep-alive and per-route limits, so connections to user-,
+ * inventory- and payment-service are reused instead of opened per call. {@code type: jdk}
+ * switches to the JDK client, which speaks HTTP/2 to peers that support it.
+ */
+@Configuration
+@Slf4j
+public class HttpClientConfiguration {
+
+  private static final String PREFIX = "order.http-client.";
+  private static final String ACQUIRE_START = HttpClientConfiguration.class.getName()
+      + ".acquireStart";
+
+  // Downstream services with their URL property, for per-route pool limits
+  private static final Map<String, String> SERVICE_URLS = Map.of(
+      "user-service", "user.service.url",
+      "inventory-service", "inventory.service.url",
+      "payment-service", "payment.service.url");
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = PREFIX + "type", havingValue = "apache", matchIfMissing = true)
+  public PoolingHttpClientConnectionManager httpClientConnectionManager(Environment environment,
+      MeterRegistry meterRegistry,
+      @Value("${order.http-client.max-total:200}") int maxTotal,
+      @Value("${order.http-client.max-per-route:50}") int maxPerRoute,
+      @Value("${order.http-client.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${order.http-client.read-timeout:10s}") Duration readTimeout,
+      @Value("${order.http-client.time-to-live:5m}") Duration timeToLive) {
+    PoolingHttpClientConnectionManager connectionManager =
+        PoolingHttpClientConnectionManagerBuilder.create()
+            .setMaxConnTotal(maxTotal)
+            .setMaxConnPerRoute(maxPerRoute)
+            .setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(connectTimeout))
+                .setSocketTimeout(Timeout.of(readTimeout))
+                .setTimeToLive(TimeValue.of(timeToLive))
+                // Connections idle for a while are checked before reuse, not on every lease
+                .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                .build())
+            .build();
+
+    SERVICE_URLS.forEach((service, urlProperty) -> {
+      Integer routeLimit = environment.getProperty(
+          PREFIX + "services." + service + ".max-per-route", Integer.class);
+      String url = environment.getProperty(urlProperty);
+      if (routeLimit != null && url != null) {
+        // Routes of requests carry the scheme's default port, so URLs without one must as well
+        URI uri = URI.create(url);
+        boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+        HttpHost host = new HttpHost(uri.getScheme(), uri.getHost(),
+            uri.getPort() != -1 ? uri.getPort() : secure ? 443 : 80);
+        connectionManager.setMaxPerRoute(new HttpRoute(host, null, secure), routeLimit);
+        log.info("✅ HTTP connection pool limit for {} ({}): {}", service, host, routeLimit);
+      }
+    });
+
+    // Leased, available and pending connections plus pool limits
+    new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "downstream")
+        .bindTo(meterRegistry);
+    return connectionManager;
+  }
+
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(name = PREFIX + "type", havingValue = "apache", matchIfMissing = true)
+  public CloseableHttpClient pooledHttpClient(
+      PoolingHttpClientConnectionManager httpClientConnectionManager,
+      MeterRegistry meterRegistry,
+      @Value("${order.http-client.connection-request-timeout:1s}")
+      Duration connectionRequestTimeout,
+      @Value("${order.http-client.read-timeout:10s}") Duration readTimeout,
+      @Value("${order.http-client.keep-alive:30s}") Duration keepAlive,
+      @Value("${order.http-client.idle-timeout:60s}") Duration idleTimeout) {
+    Timer acquireTimer = Timer.builder("order.http.client.connection.acquire")
+        .description("Time to lease a pooled connection, including connecting a new one")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+
+    return HttpClients.custom()
+        .setConnectionManager(httpClientConnectionManager)
+        .setDefaultRequestConfig(RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+            .setResponseTimeout(Timeout.of(readTimeout))
+            // Used when the peer does not announce its own Keep-Alive timeout
+            .setConnectionKeepAlive(TimeValue.of(keepAlive))
+            .build())
+        .evictExpiredConnections()
+        .evictIdleConnections(TimeValue.of(idleTimeout))
+        // The connect step leases the connection from the pool and connects it if it is new
+        .addExecInterceptorBefore(ChainElement.CONNECT.name(), "acquire-start",
+            (request, scope, chain) -> {
+              scope.clientContext.setAttribute(ACQUIRE_START, System.nanoTime());
+              return chain.proceed(request, scope);
+            })
+        .addExecInterceptorAfter(ChainElement.CONNECT.name(), "acquire-end",
+            (request, scope, chain) -> {
+              if (scope.clientContext.getAttribute(ACQUIRE_START) instanceof Long startNanos) {
+                acquireTimer.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+              }
+              return chain.proceed(request, scope);
+            })
+        .build();
+  }
+
+  @Bean
+  @ConditionalOnProperty(name = PREFIX + "type", havingValue = "apache", matchIfMissing = true)
+  public ClientHttpRequestFactory pooledClientHttpRequestFactory(
+      CloseableHttpClient pooledHttpClient) {
+    log.info("✅ RestClients use the pooled Apache HttpClient");
+    return new HttpComponentsClientHttpRequestFactory(pooledHttpClient);
+  }
+
+  // The JDK client keeps its own connection pool, so no pool limits or metrics apply here
+  @Bean
+  @ConditionalOnProperty(name = PREFIX + "type", havingValue = "jdk")
+  public ClientHttpRequestFactory jdkClientHttpRequestFactory(
+      @Value("${order.http-client.connect-timeout:2s}") Duration connectTimeout,
+      @Value("${order.http-client.read-timeout:10s}") Duration readTimeout) {
+    HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(connectTimeout)
+        .build();
+    JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+    requestFactory.setReadTimeout(readTimeout);
+    log.info("✅ RestClients use the JDK HttpClient (HTTP/2 where supported)");
+    return requestFactory;
+  }
+}
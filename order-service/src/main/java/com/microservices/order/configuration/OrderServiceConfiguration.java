@@ -1,13 +1,17 @@
 package com.microservices.order.configuration;
 
+import com.microservices.order.client.ConcurrencyLimiters;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.trace.Tracer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestClient;
 
 @Configuration
+@EnableScheduling
 public class OrderServiceConfiguration {
 
   @Bean
@@ -15,17 +19,21 @@ public class OrderServiceConfiguration {
     return openTelemetry.getTracer("order-service", "1.0.0");
   }
 
+  // Used by UserServiceClient
   @Bean
   public RestClient restClient(RestClient.Builder builder,
-      @Value("${user.service.url}") String userServiceUrl) {
-    return builder
+      @Value("${user.service.url}") String userServiceUrl,
+      ConcurrencyLimiters concurrencyLimiters) {
+    return builder.clone()
         .baseUrl(userServiceUrl)
+        .requestInterceptor(concurrencyLimiters.interceptorFor("user-service"))
         .build();
   }
 
   @Bean
-  public RestClient.Builder restClientBuilder() {
+  public RestClient.Builder restClientBuilder(ClientHttpRequestFactory clientHttpRequestFactory) {
     return RestClient.builder()
+        .requestFactory(clientHttpRequestFactory)
         .defaultHeader("Content-Type", "application/json") // Set a default header for all requests
         .defaultHeader("Accept", "application/json");
   }
@@ -0,0 +1,87 @@
+package com.microservices.order.configuration;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.microservices.order.cache.CaffeineAxonCache;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.common.jdbc.UnitOfWorkAwareConnectionProviderWrapper;
+import org.axonframework.common.transaction.TransactionManager;
+import org.axonframework.config.ConfigurationScopeAwareProvider;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.SimpleDeadlineManager;
+import org.axonframework.modelling.saga.repository.CachingSagaStore;
+import org.axonframework.modelling.saga.repository.SagaStore;
+import org.axonframework.modelling.saga.repository.jdbc.JdbcSagaStore;
+import org.axonframework.modelling.saga.repository.jdbc.PostgresSagaSqlSchema;
+import org.axonframework.modelling.saga.repository.jdbc.SagaSchema;
+import org.axonframework.serialization.json.JacksonSerializer;
+import org.axonframework.spring.jdbc.SpringDataSourceConnectionProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@Slf4j
+public class SagaStoreConfiguration {
+
+  // Sagas live in Postgres (saga_entry, saga_association) and are looked up through the
+  // (saga_type, association_key, association_value) index. Active sagas and their associations
+  // are cached in front of it, so a burst of events for one order reads the row once.
+  @Bean
+  @Primary
+  public SagaStore<Object> sagaStore(DataSource dataSource, MeterRegistry meterRegistry,
+      @Value("${order.saga.cache.maximum-size:10000}") long maximumSize,
+      @Value("${order.saga.cache.expire-after-access:30m}") Duration expireAfterAccess) {
+    SagaSchema schema = SagaSchema.builder()
+        .sagaEntryTable("saga_entry")
+        .associationValueEntryTable("saga_association")
+        .sagaIdColumn("saga_id")
+        .sagaTypeColumn("saga_type")
+        .revisionColumn("revision")
+        .serializedSagaColumn("serialized_saga")
+        .associationKeyColumn("association_key")
+        .associationValueColumn("association_value")
+        .build();
+
+    JdbcSagaStore jdbcSagaStore = JdbcSagaStore.builder()
+        .connectionProvider(new UnitOfWorkAwareConnectionProviderWrapper(
+            new SpringDataSourceConnectionProvider(dataSource)))
+        .sqlSchema(new PostgresSagaSqlSchema(schema))
+        .serializer(JacksonSerializer.builder().objectMapper(sagaStateMapper()).build())
+        .build();
+
+    log.info("✅ JDBC saga store configured (cache: max {} sagas, expire after {} idle)",
+        maximumSize, expireAfterAccess);
+    return CachingSagaStore.builder()
+        .delegateSagaStore(jdbcSagaStore)
+        .sagaCache(new CaffeineAxonCache("orderSagas", maximumSize, expireAfterAccess,
+            meterRegistry))
+        .associationsCache(new CaffeineAxonCache("orderSagaAssociations", maximumSize,
+            expireAfterAccess, meterRegistry))
+        .build();
+  }
+
+  // Saga state is written as Smile: field names are back-referenced and numbers binary-encoded
+  public static ObjectMapper sagaStateMapper() {
+    return new ObjectMapper(new SmileFactory())
+        .registerModule(new JavaTimeModule())
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+  }
+
+  // Saga step deadlines. Schedules are held in memory; OrderSagaDeadlineRecovery reschedules
+  // the pending deadline of every stored saga on startup.
+  @Bean
+  public DeadlineManager deadlineManager(org.axonframework.config.Configuration configuration,
+      TransactionManager transactionManager) {
+    return SimpleDeadlineManager.builder()
+        .scopeAwareProvider(new ConfigurationScopeAwareProvider(configuration))
+        .transactionManager(transactionManager)
+        .build();
+  }
+}
@@ -1,27 +1,39 @@
 package com.microservices.order.controller;
 
 import com.microservices.common.commands.CreateOrderCommand;
+import com.microservices.order.cache.IdempotencyStore;
 import com.microservices.order.dto.CreateOrderRequest;
+import com.microservices.order.dto.OrderConnection;
 import com.microservices.order.dto.OrderResponse;
+import com.microservices.order.dto.OrderStatusUpdate;
+import com.microservices.order.dto.UpdateOrderStatusRequest;
 import com.microservices.order.security.AuthenticationFacade;
 import com.microservices.order.service.OrderService;
+import com.microservices.order.service.OrderStatusService;
 import jakarta.validation.Valid;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.core.oidc.user.OidcUser;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -30,6 +42,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
   private final OrderService orderService;
+  private final OrderStatusService orderStatusService;
+  private final IdempotencyStore idempotencyStore;
   private final AuthenticationFacade authenticationFacade;
   private final CommandGateway commandGateway;
 
@@ -51,12 +65,42 @@ public class OrderController {
     ));
   }
 
+  // With waitMs the response is held (without a thread) until the saga reaches a terminal status
+  // or the wait runs out; 200 carries the final status, 202 the last status seen so far
   @PostMapping("/saga")
-  public ResponseEntity<OrderResponse> createOrderWithSaga(
-      @Valid @RequestBody CreateOrderRequest request) {
+  public CompletableFuture<ResponseEntity<OrderResponse>> createOrderWithSaga(
+      @Valid @RequestBody CreateOrderRequest request,
+      @RequestParam(required = false) Long waitMs,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
     log.info("Received SAGA order creation request for user: {} with {} items",
         request.getUserId(), request.getItems().size());
 
+    // A retried request gets the saga it started the first time instead of a second one
+    ResponseEntity<OrderResponse> started = idempotencyKey == null
+        ? startOrderSaga(request)
+        : idempotencyStore.execute(idempotencyScope("saga", request), idempotencyKey, request,
+            () -> startOrderSaga(request));
+    if (waitMs == null || waitMs <= 0) {
+      return CompletableFuture.completedFuture(started);
+    }
+
+    OrderResponse order = started.getBody();
+    return orderStatusService.awaitTerminalStatus(order.getId(), Duration.ofMillis(waitMs))
+        .thenApply(status -> status
+            .map(update -> {
+              OrderResponse current = OrderResponse.builder()
+                  .id(order.getId())
+                  .userId(order.getUserId())
+                  .status(update.getStatus())
+                  .build();
+              return update.isTerminal()
+                  ? ResponseEntity.ok(current)
+                  : ResponseEntity.accepted().body(current);
+            })
+            .orElse(started));
+  }
+
+  private ResponseEntity<OrderResponse> startOrderSaga(CreateOrderRequest request) {
     try {
       Random random = new Random();
       String orderId = String.valueOf(random.nextLong());
@@ -96,11 +140,36 @@ public class OrderController {
     }
   }
 
+  // Current status, then each transition, as server-sent events; ends at a terminal status
+  @GetMapping(path = "/saga/{orderId}/status", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public Flux<OrderStatusUpdate> streamOrderStatus(@PathVariable String orderId) {
+    log.info("Streaming status of saga order: {}", orderId);
+    return orderStatusService.streamStatus(orderId);
+  }
+
   @PostMapping
-  public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request) {
+  public ResponseEntity<OrderResponse> createOrder(@Valid @RequestBody CreateOrderRequest request,
+      @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey) {
     log.info("Received order creation request for user: {} with {} items",
         request.getUserId(), request.getItems().size());
 
+    // A retry replays the stored response without touching the database or other services
+    if (idempotencyKey != null) {
+      return idempotencyStore.execute(idempotencyScope("orders", request), idempotencyKey,
+          request, () -> placeOrder(request));
+    }
+    return placeOrder(request);
+  }
+
+  // Keys belong to the authenticated caller, or to the ordering user on anonymous calls
+  private String idempotencyScope(String endpoint, CreateOrderRequest request) {
+    String subject = authenticationFacade.getCurrentUserId();
+    return subject != null
+        ? endpoint + ":sub:" + subject
+        : endpoint + ":user:" + request.getUserId();
+  }
+
+  private ResponseEntity<OrderResponse> placeOrder(CreateOrderRequest request) {
     try {
       OrderResponse response = orderService.createOrder(request);
       log.info("Successfully created order with ID: {} for user: {}",
@@ -113,9 +182,30 @@ public class OrderController {
     }
   }
 
+  @GetMapping("/user/{userId}")
+  public ResponseEntity<OrderConnection> getOrdersByUser(@PathVariable Long userId,
+      @RequestParam(required = false) Integer first,
+      @RequestParam(required = false) String after) {
+    log.info("Fetching orders for user: {} (first: {}, after: {})", userId, first, after);
+    return ResponseEntity.ok(orderService.getOrdersByUserId(userId, first, after));
+  }
+
+  @GetMapping("/saga/{orderId}")
+  public ResponseEntity<OrderResponse> getSagaOrder(@PathVariable String orderId) {
+    log.info("Fetching saga order with ID: {}", orderId);
+    return ResponseEntity.ok(orderService.getSagaOrderById(orderId));
+  }
+
   @GetMapping("/{orderId}")
   public ResponseEntity<OrderResponse> getOrder(@PathVariable Long orderId) {
     log.info("Fetching order with ID: {}", orderId);
     return ResponseEntity.ok(orderService.getOrderById(orderId));
   }
+
+  @PatchMapping("/{orderId}/status")
+  public ResponseEntity<OrderResponse> updateOrderStatus(@PathVariable Long orderId,
+      @Valid @RequestBody UpdateOrderStatusRequest request) {
+    log.info("Updating status of order {} to {}", orderId, request.getStatus());
+    return ResponseEntity.ok(orderService.updateOrderStatus(orderId, request.getStatus()));
+  }
 }
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.microservices.order.controller;
 
 import com.microservices.order.client.UserServiceClient;
+import com.microservices.order.dto.OrderConnection;
 import com.microservices.order.dto.OrderResponse;
+import com.microservices.order.service.InventoryService;
 import com.microservices.order.service.OrderService;
+import com.microservices.order.service.UserLookupService;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.graphql.data.method.annotation.Argument;
+import org.springframework.graphql.data.method.annotation.BatchMapping;
 import org.springframework.graphql.data.method.annotation.QueryMapping;
-import org.springframework.graphql.data.method.annotation.SchemaMapping;
 import org.springframework.stereotype.Controller;
 import reactor.core.publisher.Mono;
 
@@ -16,12 +24,15 @@ import reactor.core.publisher.Mono;
 public class OrderGraphQLController {
 
   private final OrderService orderService;
-  private final UserServiceClient userServiceClient;
+  private final UserLookupService userLookupService;
+  private final InventoryService inventoryService;
 
   // Add this constructor to verify bean creation
-  public OrderGraphQLController(OrderService orderService, UserServiceClient userServiceClient) {
+  public OrderGraphQLController(OrderService orderService, UserLookupService userLookupService,
+      InventoryService inventoryService) {
     this.orderService = orderService;
-    this.userServiceClient = userServiceClient;
+    this.userLookupService = userLookupService;
+    this.inventoryService = inventoryService;
     log.info("🚀 OrderGraphQLController initialized successfully!");
   }
 
@@ -40,35 +51,86 @@ public class OrderGraphQLController {
   }
 
   @QueryMapping
-  public Mono<List<OrderResponse>> getOrders(@Argument Long userId) {
-    log.info("GraphQL: Fetching orders for user: {}", userId);
+  public Mono<OrderResponse> getSagaOrder(@Argument String orderId) {
+    log.info("GraphQL: Fetching saga order with ID: {}", orderId);
 
     return Mono.fromCallable(() -> {
       try {
-        return orderService.getOrdersByUserId(userId);
+        return orderService.getSagaOrderById(orderId);
       } catch (Exception e) {
-        log.error("Error fetching orders for user {}: {}", userId, e.getMessage());
-        throw new RuntimeException("Orders not found for user: " + userId, e);
+        log.error("Error fetching saga order {}: {}", orderId, e.getMessage());
+        throw new RuntimeException("Order not found: " + orderId, e);
       }
     });
   }
 
-  // Field resolver for user - only called if 'user' field is requested
-  @SchemaMapping(typeName = "OrderResponse", field = "user")
-  public Mono<UserServiceClient.UserResponse> getUser(OrderResponse orderResponse) {
-    log.info("GraphQL: Fetching user details for userId: {}", orderResponse.getUserId());
-
-    if (orderResponse.getUserId() == null) {
-      return Mono.empty();
-    }
+  @QueryMapping
+  public Mono<OrderConnection> getOrders(@Argument Long userId, @Argument Integer first,
+      @Argument String after) {
+    log.info("GraphQL: Fetching orders for user: {} (first: {}, after: {})", userId, first,
+        after);
 
     return Mono.fromCallable(() -> {
       try {
-        return orderService.getUserWithCache(orderResponse.getUserId());
+        return orderService.getOrdersByUserId(userId, first, after);
       } catch (Exception e) {
-        log.error("Error fetching user {}: {}", orderResponse.getUserId(), e.getMessage());
-        return null; // Return null instead of throwing to allow partial data
+        log.error("Error fetching orders for user {}: {}", userId, e.getMessage());
+        throw new RuntimeException("Orders not found for user: " + userId, e);
       }
     });
   }
-}
\ No newline at end of file
+
+  // Field resolver for user - only called if 'user' field is requested. Batched across all
+  // orders in the execution, so a list of orders costs one cache multi-get plus at most one
+  // user-service call.
+  @BatchMapping(typeName = "OrderResponse", field = "user")
+  public Map<OrderResponse, UserServiceClient.UserResponse> user(List<OrderResponse> orders) {
+    Set<Long> userIds = orders.stream()
+        .map(OrderResponse::getUserId)
+        .filter(Objects::nonNull)
+        .collect(Collectors.toSet());
+    log.info("GraphQL: Fetching user details for {} orders ({} distinct users)", orders.size(),
+        userIds.size());
+
+    Map<Long, UserServiceClient.UserResponse> users;
+    try {
+      users = userLookupService.getUsersByIds(userIds);
+    } catch (Exception e) {
+      log.error("Error fetching users {}: {}", userIds, e.getMessage());
+      users = Map.of(); // Resolve 'user' as null instead of failing to allow partial data
+    }
+
+    Map<OrderResponse, UserServiceClient.UserResponse> result = new HashMap<>();
+    for (OrderResponse order : orders) {
+      UserServiceClient.UserResponse user = users.get(order.getUserId());
+      if (user != null) {
+        result.put(order, user);
+      }
+    }
+    return result;
+  }
+
+  // Items built from the database carry no product name; look them up in one inventory call
+  @BatchMapping(typeName = "OrderItemResponse", field = "productName")
+  public Map<OrderResponse.OrderItemResponse, String> productName(
+      List<OrderResponse.OrderItemResponse> items) {
+    Set<Long> missing = items.stream()
+        .filter(item -> item.getProductName() == null && item.getProductId() != null)
+        .map(OrderResponse.OrderItemResponse::getProductId)
+        .collect(Collectors.toSet());
+    Map<Long, String> names = missing.isEmpty()
+        ? Map.of()
+        : inventoryService.getProductNames(missing);
+
+    Map<OrderResponse.OrderItemResponse, String> result = new HashMap<>();
+    for (OrderResponse.OrderItemResponse item : items) {
+      String name = item.getProductName() != null
+          ? item.getProductName()
+          : names.get(item.getProductId());
+      if (name != null) {
+        result.put(item, name);
+      }
+    }
+    return result;
+  }
+}
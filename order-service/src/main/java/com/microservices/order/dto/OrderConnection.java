@@ -0,0 +1,41 @@
+package com.microservices.order.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Relay-style page of orders, newest first. Cursors are opaque and only valid for the listing
+ * that produced them.
+ */
+@Data
+@NoArgsConstructor
+@Builder
+@AllArgsConstructor
+public class OrderConnection {
+
+  private List<OrderEdge> edges;
+  private PageInfo pageInfo;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class OrderEdge {
+
+    private String cursor;
+    private OrderResponse node;
+  }
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class PageInfo {
+
+    private boolean hasNextPage;
+    private boolean hasPreviousPage;
+    private String startCursor;
+    private String endCursor;
+  }
+}
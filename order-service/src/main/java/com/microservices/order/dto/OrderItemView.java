@@ -0,0 +1,19 @@
+package com.microservices.order.dto;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// JPQL constructor projection of an order item row, read without loading the entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderItemView {
+
+  private Long orderId;
+  private Long productId;
+  private Integer quantity;
+  private BigDecimal unitPrice;
+  private BigDecimal totalPrice;
+}
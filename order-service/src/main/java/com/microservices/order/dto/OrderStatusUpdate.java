@@ -0,0 +1,28 @@
+package com.microservices.order.dto;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusUpdate {
+
+  // Statuses that end order processing; status streams complete after one of them
+  public static final Set<String> TERMINAL_STATUSES =
+      Set.of("COMPLETED", "FAILED", "CANCELLED", "REFUNDED");
+
+  private String orderId;
+  private String status;
+  private String reason;
+  private LocalDateTime updatedAt;
+
+  public boolean isTerminal() {
+    return TERMINAL_STATUSES.contains(status);
+  }
+}
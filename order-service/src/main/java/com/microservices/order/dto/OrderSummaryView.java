@@ -0,0 +1,19 @@
+package com.microservices.order.dto;
+
+import com.microservices.order.entity.OrderStatus;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// JPQL constructor projection of an order row, read without loading the entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderSummaryView {
+
+  private Long id;
+  private Long userId;
+  private BigDecimal totalAmount;
+  private OrderStatus status;
+}
@@ -0,0 +1,14 @@
+package com.microservices.order.dto;
+
+import com.microservices.order.entity.OrderStatus;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class UpdateOrderStatusRequest {
+
+  @NotNull(message = "Status cannot be null")
+  private OrderStatus status;
+}
@@ -0,0 +1,55 @@
+package com.microservices.order.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "order_outbox")
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class OutboxEvent {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_id_seq")
+  @SequenceGenerator(name = "order_outbox_id_seq", sequenceName = "order_outbox_id_seq",
+      allocationSize = 50)
+  private Long id;
+
+  @Column(name = "aggregate_id", nullable = false)
+  private String aggregateId;
+
+  @Column(name = "event_type", nullable = false)
+  private String eventType;
+
+  @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+  private String payload;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "published_at")
+  private LocalDateTime publishedAt;
+
+  @Column(name = "attempts", nullable = false)
+  private int attempts;
+
+  @Column(name = "last_error")
+  private String lastError;
+
+  public OutboxEvent(String aggregateId, String eventType, String payload) {
+    this.aggregateId = aggregateId;
+    this.eventType = eventType;
+    this.payload = payload;
+    this.createdAt = LocalDateTime.now();
+  }
+}
@@ -1,16 +1,22 @@
 package com.microservices.order.handler;
 
+import com.microservices.common.commands.FulfillInventoryCommand;
+import com.microservices.common.commands.ReleaseInventoryCommand;
 import com.microservices.common.commands.ReserveInventoryCommand;
+import com.microservices.common.events.InventoryFulfilledEvent;
+import com.microservices.common.events.InventoryFulfillmentFailedEvent;
+import com.microservices.common.events.InventoryReleasedEvent;
 import com.microservices.common.events.InventoryReservationFailedEvent;
 import com.microservices.common.events.InventoryReservedEvent;
 import com.microservices.order.client.InventoryServiceClient;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.eventhandling.gateway.EventGateway;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
 
 @Component
 @RequiredArgsConstructor
@@ -26,26 +32,44 @@ public class InventoryReservationHandler {
         command.getOrderId(), command.getItems().size());
 
     try {
-      List<InventoryReservedEvent.ReservedItem> reservedItems = new ArrayList<>();
-
-      // ✅ Check availability for all items first
-      for (ReserveInventoryCommand.InventoryItem item : command.getItems()) {
-        log.debug("Checking inventory for productId: {}, quantity: {}",
-            item.getProductId(), item.getQuantity());
-
-        var inventoryResponse = inventoryServiceClient.checkInventory(
-            item.getProductId(),
-            item.getQuantity()
-        );
-
-        if (inventoryResponse == null) {
-          log.error("No response from inventory service for productId: {}", item.getProductId());
-          publishReservationFailed(command.getOrderId(),
-              "Inventory service unavailable for product: " + item.getProductId());
-          return;
-        }
+      // ✅ Reserve all items in one call; inventory-service reserves all of them or none
+      List<InventoryServiceClient.InventoryCheckItem> items = command.getItems().stream()
+          .map(item -> new InventoryServiceClient.InventoryCheckItem(
+              item.getProductId(), item.getQuantity()))
+          .collect(Collectors.toList());
+
+      var reservation = inventoryServiceClient.reserveInventoryBulk(command.getOrderId(), items);
+
+      if (reservation == null) {
+        log.error("No response from inventory service for orderId: {}", command.getOrderId());
+        publishReservationFailed(command.getOrderId(), "Inventory service unavailable");
+        return;
+      }
+
+      if (reservation.isReleased()) {
+        log.warn("Inventory already released for orderId: {}", command.getOrderId());
+        publishReservationFailed(command.getOrderId(), "Order was released before reservation");
+        return;
+      }
+
+      if (!reservation.isReserved()) {
+        log.warn("Inventory not available for orderId: {}, unavailable: {}, missing: {}",
+            command.getOrderId(), reservation.getUnavailableProductIds(),
+            reservation.getMissingProductIds());
+        publishReservationFailed(command.getOrderId(),
+            "Insufficient inventory for products: " + reservation.getUnavailableProductIds()
+                + ", unknown products: " + reservation.getMissingProductIds());
+        return;
       }
 
+      List<InventoryReservedEvent.ReservedItem> reservedItems = reservation.getItems().stream()
+          .map(item -> InventoryReservedEvent.ReservedItem.builder()
+              .productId(item.getProductId())
+              .quantity(item.getQuantity())
+              .reservationId(String.valueOf(item.getReservationId()))
+              .build())
+          .collect(Collectors.toList());
+
       // ✅ All reservations successful
       log.info("Successfully reserved inventory for orderId: {}, total items: {}",
           command.getOrderId(), reservedItems.size());
@@ -63,9 +87,40 @@ public class InventoryReservationHandler {
     }
   }
 
+  // Releasing is idempotent on the inventory side, so a failed call can simply be retried
+  @CommandHandler
+  public void handle(ReleaseInventoryCommand command) {
+    log.info("Releasing inventory for orderId: {}, reason: {}", command.getOrderId(),
+        command.getReason());
+
+    inventoryServiceClient.releaseInventoryBulk(command.getOrderId());
+
+    eventGateway.publish(InventoryReleasedEvent.builder()
+        .orderId(command.getOrderId())
+        .reason(command.getReason())
+        .build());
+  }
+
+  // Fulfilling is idempotent as well; it turns the order's reservations into shipped stock.
+  // A conflict means nothing is left to ship. Other failures are left to the saga's deadline.
+  @CommandHandler
+  public void handle(FulfillInventoryCommand command) {
+    log.info("Fulfilling inventory for orderId: {}", command.getOrderId());
+
+    try {
+      inventoryServiceClient.fulfillInventoryBulk(command.getOrderId());
+    } catch (HttpClientErrorException.Conflict e) {
+      log.error("No reserved stock left to fulfil for orderId: {}", command.getOrderId());
+      eventGateway.publish(InventoryFulfillmentFailedEvent.builder()
+          .orderId(command.getOrderId())
+          .reason("Reservations expired or were released")
+          .build());
+      return;
+    }
 
-  private void rollbackReservations(List<InventoryReservedEvent.ReservedItem> reservedItems) {
-    log.warn("Rolling back {} reservations", reservedItems.size());
+    eventGateway.publish(InventoryFulfilledEvent.builder()
+        .orderId(command.getOrderId())
+        .build());
   }
 
   private void publishReservationFailed(String orderId, String reason) {
@@ -74,4 +129,4 @@ public class InventoryReservationHandler {
         .reason(reason)
         .build());
   }
-}
\ No newline at end of file
+}
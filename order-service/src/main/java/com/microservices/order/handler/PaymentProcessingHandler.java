@@ -1,81 +1,209 @@
 package com.microservices.order.handler;
 
 import com.microservices.common.commands.ProcessPaymentCommand;
+import com.microservices.common.commands.RefundPaymentCommand;
 import com.microservices.common.events.PaymentFailedEvent;
 import com.microservices.common.events.PaymentProcessedEvent;
+import com.microservices.common.events.PaymentRefundedEvent;
+import com.microservices.order.client.PaymentGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.UUID;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.CommandHandler;
 import org.axonframework.eventhandling.gateway.EventGateway;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+/**
+ * Hands payments to the {@link PaymentGateway} and publishes the result event when the charge
+ * completes, so the command thread is released right away. At most {@code max-in-flight} charges
+ * run at once and a command that finds no free slot fails the payment immediately, since waiting
+ * would hold the event processor thread that sent it. A slot is held until the gateway answers,
+ * even when the payment was already reported as timed out, and a charge approved after its
+ * timeout is refunded.
+ */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentProcessingHandler {
 
   private final EventGateway eventGateway;
+  private final PaymentGateway paymentGateway;
+  private final Semaphore inFlight;
+  private final Duration chargeTimeout;
+  private final MeterRegistry meterRegistry;
+  private final Counter rejected;
+
+  public PaymentProcessingHandler(EventGateway eventGateway, PaymentGateway paymentGateway,
+      MeterRegistry meterRegistry,
+      @Value("${order.payment.max-in-flight:256}") int maxInFlight,
+      @Value("${order.payment.timeout:10s}") Duration chargeTimeout) {
+    this.eventGateway = eventGateway;
+    this.paymentGateway = paymentGateway;
+    this.inFlight = new Semaphore(maxInFlight);
+    this.chargeTimeout = chargeTimeout;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("order.payment.in-flight", inFlight, s -> maxInFlight - s.availablePermits())
+        .description("Payments handed to the gateway and not completed yet")
+        .register(meterRegistry);
+    this.rejected = Counter.builder("order.payment.rejected")
+        .description("Payments failed because every in-flight slot was taken")
+        .register(meterRegistry);
+  }
 
   @CommandHandler
   public void handle(ProcessPaymentCommand command) {
     log.info("Processing payment for orderId: {}, userId: {}, amount: {}",
         command.getOrderId(), command.getUserId(), command.getAmount());
 
+    // ✅ Basic validation
+    if (command.getAmount() == null || command.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+      log.error("Invalid payment amount for orderId: {}, amount: {}",
+          command.getOrderId(), command.getAmount());
+      publishPaymentFailed(command.getOrderId(), "Invalid payment amount");
+      return;
+    }
+
+    if (command.getUserId() == null) {
+      log.error("Missing userId for payment processing, orderId: {}", command.getOrderId());
+      publishPaymentFailed(command.getOrderId(), "Missing user information");
+      return;
+    }
+
+    if (!inFlight.tryAcquire()) {
+      rejected.increment();
+      log.warn("No payment slot free for orderId: {}", command.getOrderId());
+      publishPaymentFailed(command.getOrderId(), "Payment capacity exhausted");
+      return;
+    }
+
+    long startNanos = System.nanoTime();
+    // Whichever comes first, the gateway's answer or the timeout, decides the reported outcome
+    AtomicBoolean reported = new AtomicBoolean();
     try {
-      // ✅ Basic validation
-      if (command.getAmount() == null
-          || command.getAmount().compareTo(java.math.BigDecimal.ZERO) <= 0) {
-        log.error("Invalid payment amount for orderId: {}, amount: {}",
-            command.getOrderId(), command.getAmount());
-        publishPaymentFailed(command.getOrderId(), "Invalid payment amount");
-        return;
-      }
-
-      if (command.getUserId() == null) {
-        log.error("Missing userId for payment processing, orderId: {}", command.getOrderId());
-        publishPaymentFailed(command.getOrderId(), "Missing user information");
-        return;
-      }
-
-      // ✅ Simulate payment processing (you could add actual logic here)
-      log.debug("Validating payment details for orderId: {}", command.getOrderId());
-
-      // Simulate some processing time (optional)
-      Thread.sleep(100);
-
-      // ✅ Generate transaction ID
-      String transactionId = generateTransactionId();
-
-      log.info("Payment processed successfully for orderId: {}, transactionId: {}",
-          command.getOrderId(), transactionId);
-
-      // ✅ Publish success event
-      eventGateway.publish(PaymentProcessedEvent.builder()
-          .orderId(command.getOrderId())
-          .userId(command.getUserId())
-          .amount(command.getAmount())
-          .currency(command.getCurrency())
-          .paymentMethod(command.getPaymentMethod())
-          .transactionId(transactionId)
-          .processedAt(LocalDateTime.now())
-          .build());
-
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      log.error("Payment processing interrupted for orderId: {}", command.getOrderId(), e);
-      publishPaymentFailed(command.getOrderId(), "Payment processing interrupted");
+      paymentGateway.charge(new PaymentGateway.PaymentRequest(command.getOrderId(),
+              command.getUserId(), command.getAmount(), command.getCurrency(),
+              command.getPaymentMethod()))
+          .whenComplete((result, error) -> {
+            inFlight.release();
+            if (reported.compareAndSet(false, true)) {
+              reportCharge(command, result, error, System.nanoTime() - startNanos);
+            } else if (result != null && result.approved()) {
+              voidLateCharge(command.getOrderId(), result.transactionId());
+            }
+          });
+      CompletableFuture.delayedExecutor(chargeTimeout.toMillis(), TimeUnit.MILLISECONDS)
+          .execute(() -> {
+            if (reported.compareAndSet(false, true)) {
+              reportCharge(command, null, new TimeoutException(),
+                  System.nanoTime() - startNanos);
+            }
+          });
     } catch (Exception e) {
-      log.error("Unexpected error during payment processing for orderId: {}", command.getOrderId(),
-          e);
+      // The gateway failed before returning a future, so whenComplete never runs
+      inFlight.release();
+      log.error("Unexpected error during payment processing for orderId: {}",
+          command.getOrderId(), e);
       publishPaymentFailed(command.getOrderId(), "Payment processing failed: " + e.getMessage());
     }
   }
 
-  private String generateTransactionId() {
-    // ✅ Simple transaction ID generation
-    return "TXN-" + System.currentTimeMillis() + "-" + UUID.randomUUID().toString().substring(0, 8);
+  @CommandHandler
+  public void handle(RefundPaymentCommand command) {
+    log.info("Refunding payment for orderId: {}, transactionId: {}, reason: {}",
+        command.getOrderId(), command.getTransactionId(), command.getReason());
+
+    refund(command.getOrderId(), command.getTransactionId(), command.getReason())
+        .thenAccept(refund -> eventGateway.publish(PaymentRefundedEvent.builder()
+            .orderId(command.getOrderId())
+            .transactionId(command.getTransactionId())
+            .refundId(refund.refundId())
+            .refundedAt(LocalDateTime.now())
+            .build()));
+  }
+
+  private void reportCharge(ProcessPaymentCommand command, PaymentGateway.PaymentResult result,
+      Throwable error, long elapsedNanos) {
+    try {
+      onChargeCompleted(command, result, error, elapsedNanos);
+    } catch (Exception e) {
+      log.error("Failed to publish payment result for orderId: {}", command.getOrderId(), e);
+    }
+  }
+
+  private void voidLateCharge(String orderId, String transactionId) {
+    // The saga was already told this payment failed, so the approval must not stand
+    log.warn("Payment for orderId: {} approved after timing out, refunding transactionId: {}",
+        orderId, transactionId);
+    refund(orderId, transactionId, "Approved after the payment timed out");
+  }
+
+  private CompletableFuture<PaymentGateway.RefundResult> refund(String orderId,
+      String transactionId, String reason) {
+    try {
+      return paymentGateway.refund(
+              new PaymentGateway.RefundRequest(orderId, transactionId, reason))
+          .whenComplete((refund, error) -> {
+            if (error != null) {
+              log.error("Refund failed for orderId: {}, transactionId: {}",
+                  orderId, transactionId, error);
+            }
+          });
+    } catch (Exception e) {
+      log.error("Refund failed for orderId: {}, transactionId: {}", orderId, transactionId, e);
+      return CompletableFuture.failedFuture(e);
+    }
+  }
+
+  private void onChargeCompleted(ProcessPaymentCommand command,
+      PaymentGateway.PaymentResult result, Throwable error, long elapsedNanos) {
+    String outcome = error != null ? "error" : result.approved() ? "approved" : "declined";
+    Timer.builder("order.payment.duration")
+        .description("Time from handing a payment to the gateway until it completed")
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+    if (error != null) {
+      Throwable cause = error instanceof CompletionException && error.getCause() != null
+          ? error.getCause() : error;
+      String reason = cause instanceof TimeoutException
+          ? "Payment timed out after " + chargeTimeout
+          : "Payment processing failed: " + cause.getMessage();
+      log.error("Payment failed for orderId: {}: {}", command.getOrderId(), reason);
+      publishPaymentFailed(command.getOrderId(), reason);
+      return;
+    }
+
+    if (!result.approved()) {
+      publishPaymentFailed(command.getOrderId(), result.declineReason());
+      return;
+    }
+
+    log.info("Payment processed successfully for orderId: {}, transactionId: {}",
+        command.getOrderId(), result.transactionId());
+
+    // ✅ Publish success event
+    eventGateway.publish(PaymentProcessedEvent.builder()
+        .orderId(command.getOrderId())
+        .userId(command.getUserId())
+        .amount(command.getAmount())
+        .currency(command.getCurrency())
+        .paymentMethod(command.getPaymentMethod())
+        .transactionId(result.transactionId())
+        .processedAt(LocalDateTime.now())
+        .build());
   }
 
   private void publishPaymentFailed(String orderId, String reason) {
@@ -86,4 +214,4 @@ public class PaymentProcessingHandler {
         .reason(reason)
         .build());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,304 @@
+package com.microservices.order.projection;
+
+import com.microservices.common.events.OrderCancelledEvent;
+import com.microservices.common.events.OrderCompletedEvent;
+import com.microservices.common.events.OrderConfirmedEvent;
+import com.microservices.common.events.OrderCreatedEvent;
+import com.microservices.common.events.OrderFailedEvent;
+import com.microservices.common.events.OrderItemsUpdatedEvent;
+import com.microservices.common.events.OrderRefundedEvent;
+import com.microservices.common.events.OrderStatusUpdatedEvent;
+import com.microservices.order.dto.OrderResponse;
+import com.microservices.order.dto.OrderStatusUpdate;
+import com.microservices.order.query.FindOrderQuery;
+import com.microservices.order.query.OrderStatusQuery;
+import com.microservices.order.repository.OrderViewRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.config.ProcessingGroup;
+import org.axonframework.eventhandling.EventHandler;
+import org.axonframework.eventhandling.ReplayToken;
+import org.axonframework.eventhandling.ResetHandler;
+import org.axonframework.eventhandling.SequenceNumber;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.axonframework.messaging.unitofwork.UnitOfWork;
+import org.axonframework.queryhandling.QueryHandler;
+import org.axonframework.queryhandling.QueryUpdateEmitter;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Query model of saga-driven orders. Events of one processing batch are folded into in-memory
+ * views and written with a single batched upsert when the batch's unit of work commits, so each
+ * order costs at most one SELECT and one row write per batch. Live status transitions are pushed
+ * to {@link OrderStatusQuery} subscribers once the batch commits. During a replay nothing is
+ * logged or pushed per event and cached orders are left alone.
+ */
+@Component
+@ProcessingGroup("OrderProjectionProcessor")
+@Slf4j
+public class OrderProjection {
+
+  private static final String BATCH_RESOURCE = OrderProjection.class.getName() + ".batch";
+
+  private final OrderViewRepository orderViewRepository;
+  private final CacheManager cacheManager;
+  private final QueryUpdateEmitter queryUpdateEmitter;
+  private final Counter liveEvents;
+  private final Counter replayedEvents;
+
+  public OrderProjection(OrderViewRepository orderViewRepository, CacheManager cacheManager,
+      QueryUpdateEmitter queryUpdateEmitter, MeterRegistry meterRegistry) {
+    this.orderViewRepository = orderViewRepository;
+    this.cacheManager = cacheManager;
+    this.queryUpdateEmitter = queryUpdateEmitter;
+    this.liveEvents = eventCounter(false, meterRegistry);
+    this.replayedEvents = eventCounter(true, meterRegistry);
+  }
+
+  @EventHandler
+  public void on(OrderCreatedEvent event, @SequenceNumber Long sequence) {
+    Map<String, OrderView> batch = currentBatch().views;
+    OrderView view = batch.computeIfAbsent(event.getOrderId(),
+        orderId -> orderViewRepository.findById(orderId).orElseGet(OrderView::new));
+    if (sequence <= view.getLastSequence()) {
+      return;
+    }
+
+    view.setOrderId(event.getOrderId());
+    view.setUserId(event.getUserId());
+    view.setStatus("CREATED");
+    view.setTotalAmount(event.getTotalAmount());
+    view.setCurrency(event.getCurrency());
+    view.setPaymentMethod(event.getPaymentMethod());
+    view.setItems(new ArrayList<>(event.getItems()));
+    view.setCreatedAt(event.getCreatedAt());
+    view.setUpdatedAt(event.getCreatedAt());
+    view.setLastSequence(sequence);
+    emitStatus(view);
+  }
+
+  @EventHandler
+  public void on(OrderConfirmedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus("CONFIRMED");
+      view.setTransactionId(event.getTransactionId());
+      view.setUpdatedAt(event.getConfirmedAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderFailedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus("FAILED");
+      view.setStatusReason(event.getReason());
+      view.setUpdatedAt(event.getFailedAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderCancelledEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus("CANCELLED");
+      view.setStatusReason(event.getReason());
+      view.setUpdatedAt(event.getCancelledAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderCompletedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus("COMPLETED");
+      Optional.ofNullable(event.getTransactionId()).ifPresent(view::setTransactionId);
+      view.setUpdatedAt(event.getCompletedAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderStatusUpdatedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus(event.getNewStatus());
+      view.setStatusReason(event.getReason());
+      view.setUpdatedAt(event.getUpdatedAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderRefundedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      view.setStatus("REFUNDED");
+      view.setStatusReason(event.getReason());
+      view.setUpdatedAt(event.getRefundedAt());
+    });
+  }
+
+  @EventHandler
+  public void on(OrderItemsUpdatedEvent event, @SequenceNumber Long sequence) {
+    update(event.getOrderId(), sequence, view -> {
+      for (OrderItemsUpdatedEvent.OrderItemChange change : event.getItemChanges()) {
+        switch (change.getAction()) {
+          case "ADD":
+            view.getItems().add(new OrderCreatedEvent.OrderItem(
+                change.getProductId(),
+                change.getNewQuantity(),
+                change.getNewPrice()));
+            break;
+          case "UPDATE":
+            view.getItems().stream()
+                .filter(item -> item.getProductId().equals(change.getProductId()))
+                .findFirst()
+                .ifPresent(item -> {
+                  item.setQuantity(change.getNewQuantity());
+                  item.setPrice(change.getNewPrice());
+                });
+            break;
+          case "REMOVE":
+            view.getItems().removeIf(item -> item.getProductId().equals(change.getProductId()));
+            break;
+        }
+      }
+      view.setTotalAmount(event.getNewTotalAmount());
+      view.setUpdatedAt(event.getUpdatedAt());
+    });
+  }
+
+  // Replays rebuild the table from scratch; otherwise every event would be skipped as already seen
+  @ResetHandler
+  public void onReset() {
+    int deleted = orderViewRepository.deleteAll();
+    log.info("🔄 Order projection reset, {} order views deleted", deleted);
+  }
+
+  @QueryHandler
+  public Optional<OrderResponse> handle(FindOrderQuery query) {
+    return orderViewRepository.findById(query.getOrderId()).map(OrderProjection::toResponse);
+  }
+
+  @QueryHandler
+  public Optional<OrderStatusUpdate> handle(OrderStatusQuery query) {
+    return orderViewRepository.findById(query.getOrderId()).map(OrderProjection::toStatusUpdate);
+  }
+
+  private void update(String orderId, Long sequence, Consumer<OrderView> change) {
+    Map<String, OrderView> batch = currentBatch().views;
+    OrderView view = batch.computeIfAbsent(orderId,
+        id -> orderViewRepository.findById(id).orElse(null));
+    if (view == null) {
+      log.warn("No order view for orderId: {}, skipping event {}", orderId, sequence);
+      return;
+    }
+    if (sequence <= view.getLastSequence()) {
+      return;
+    }
+
+    String previousStatus = view.getStatus();
+    change.accept(view);
+    view.setLastSequence(sequence);
+    if (!view.getStatus().equals(previousStatus)) {
+      emitStatus(view);
+    }
+  }
+
+  // Inside the unit of work the emitter holds updates back until the batch has committed
+  private void emitStatus(OrderView view) {
+    if (ReplayToken.isReplay(CurrentUnitOfWork.get().getMessage())) {
+      return;
+    }
+    OrderStatusUpdate update = toStatusUpdate(view);
+    String orderId = view.getOrderId();
+    queryUpdateEmitter.emit(OrderStatusQuery.class,
+        query -> orderId.equals(query.getOrderId()), update);
+    if (update.isTerminal()) {
+      queryUpdateEmitter.complete(OrderStatusQuery.class,
+          query -> orderId.equals(query.getOrderId()));
+    }
+  }
+
+  // One batch per unit of work; flushed before the batch's transaction commits
+  private Batch currentBatch() {
+    UnitOfWork<?> unitOfWork = CurrentUnitOfWork.get();
+    boolean replay = ReplayToken.isReplay(unitOfWork.getMessage());
+    (replay ? replayedEvents : liveEvents).increment();
+
+    UnitOfWork<?> root = unitOfWork.root();
+    Batch batch = root.getOrComputeResource(BATCH_RESOURCE, key -> {
+      Batch created = new Batch();
+      root.onPrepareCommit(uow -> flush(created));
+      root.afterCommit(uow -> {
+        if (created.live) {
+          evictCachedOrders(created.views);
+        }
+      });
+      return created;
+    });
+    batch.live |= !replay;
+    return batch;
+  }
+
+  private void flush(Batch batch) {
+    if (batch.views.isEmpty()) {
+      return;
+    }
+    orderViewRepository.upsertAll(batch.views.values());
+    log.debug("Upserted {} order views", batch.views.size());
+  }
+
+  // GET /api/orders/saga/{id} caches the views it reads
+  private void evictCachedOrders(Map<String, OrderView> views) {
+    Cache sagaOrders = cacheManager.getCache("sagaOrders");
+    if (sagaOrders != null) {
+      views.keySet().forEach(sagaOrders::evict);
+    }
+  }
+
+  private static Counter eventCounter(boolean replay, MeterRegistry meterRegistry) {
+    return Counter.builder("order.projection.events")
+        .description("Events applied to the order projection")
+        .tag("replay", String.valueOf(replay))
+        .register(meterRegistry);
+  }
+
+  private static OrderStatusUpdate toStatusUpdate(OrderView view) {
+    return OrderStatusUpdate.builder()
+        .orderId(view.getOrderId())
+        .status(view.getStatus())
+        .reason(view.getStatusReason())
+        .updatedAt(view.getUpdatedAt())
+        .build();
+  }
+
+  private static OrderResponse toResponse(OrderView view) {
+    return OrderResponse.builder()
+        .id(view.getOrderId())
+        .userId(view.getUserId())
+        .totalAmount(view.getTotalAmount())
+        .status(view.getStatus())
+        .items(view.getItems().stream()
+            .map(item -> {
+              OrderResponse.OrderItemResponse itemResp = new OrderResponse.OrderItemResponse();
+              itemResp.setProductId(item.getProductId());
+              itemResp.setQuantity(item.getQuantity());
+              itemResp.setUnitPrice(item.getPrice());
+              itemResp.setTotalPrice(
+                  item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+              return itemResp;
+            })
+            .collect(Collectors.toList()))
+        .build();
+  }
+
+  private static final class Batch {
+
+    private final Map<String, OrderView> views = new LinkedHashMap<>();
+    private boolean live;
+  }
+}
@@ -0,0 +1,31 @@
+package com.microservices.order.projection;
+
+import com.microservices.common.events.OrderCreatedEvent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Denormalized row of the order_view table, the query model of saga-driven orders.
+ */
+@Data
+@NoArgsConstructor
+public class OrderView {
+
+  private String orderId;
+  private Long userId;
+  private String status;
+  private BigDecimal totalAmount;
+  private String currency;
+  private String paymentMethod;
+  private String transactionId;
+  private String statusReason;
+  private List<OrderCreatedEvent.OrderItem> items = new ArrayList<>();
+  private LocalDateTime createdAt;
+  private LocalDateTime updatedAt;
+  // Aggregate sequence number of the last applied event; replayed events at or below it are skipped
+  private long lastSequence = -1;
+}
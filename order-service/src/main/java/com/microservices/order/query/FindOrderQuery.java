@@ -0,0 +1,13 @@
+package com.microservices.order.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FindOrderQuery {
+
+  private String orderId;
+}
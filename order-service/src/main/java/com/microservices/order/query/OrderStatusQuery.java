@@ -0,0 +1,14 @@
+package com.microservices.order.query;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Subscription query: initial status from order_view, then one update per status transition
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusQuery {
+
+  private String orderId;
+}
@@ -1,15 +1,53 @@
 package com.microservices.order.repository;
 
+import com.microservices.order.dto.OrderItemView;
+import com.microservices.order.dto.OrderSummaryView;
 import com.microservices.order.entity.Order;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+// Read queries run in read-only transactions: Spring switches the Hibernate session to
+// FlushMode.MANUAL, so no dirty checking or flush happens on the read path
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
   List<Order> findByUserId(Long userId);
 
-  // Add this to OrderRepository interface
-  List<Order> findByUserIdOrderByIdDesc(Long userId);
-}
\ No newline at end of file
+  // Order and its items in one SELECT
+  @EntityGraph(attributePaths = "orderItems")
+  @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+  @Transactional(readOnly = true)
+  Optional<Order> findWithItemsById(Long id);
+
+  // Keyset pagination over (user_id, id), served by idx_orders_user_id_id
+  @Query("SELECT new com.microservices.order.dto.OrderSummaryView("
+      + "o.id, o.userId, o.totalAmount, o.status) "
+      + "FROM Order o WHERE o.userId = :userId ORDER BY o.id DESC")
+  @Transactional(readOnly = true)
+  List<OrderSummaryView> findSummariesByUserId(@Param("userId") Long userId, Limit limit);
+
+  @Query("SELECT new com.microservices.order.dto.OrderSummaryView("
+      + "o.id, o.userId, o.totalAmount, o.status) "
+      + "FROM Order o WHERE o.userId = :userId AND o.id < :afterId ORDER BY o.id DESC")
+  @Transactional(readOnly = true)
+  List<OrderSummaryView> findSummariesByUserIdAfter(@Param("userId") Long userId,
+      @Param("afterId") Long afterId, Limit limit);
+
+  // Items of a whole page of orders in one SELECT
+  @Query("SELECT new com.microservices.order.dto.OrderItemView("
+      + "i.order.id, i.productId, i.quantity, i.unitPrice, i.totalPrice) "
+      + "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.order.id, i.id")
+  @Transactional(readOnly = true)
+  List<OrderItemView> findItemViewsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,114 @@
+package com.microservices.order.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.common.events.OrderCreatedEvent;
+import com.microservices.order.projection.OrderView;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderViewRepository {
+
+  private static final TypeReference<List<OrderCreatedEvent.OrderItem>> ITEMS_TYPE =
+      new TypeReference<>() {
+      };
+
+  private static final String SELECT_BY_ID = "SELECT order_id, user_id, status, total_amount, "
+      + "currency, payment_method, transaction_id, status_reason, items, created_at, updated_at, "
+      + "last_sequence FROM order_view WHERE order_id = ?";
+
+  // Older sequences never overwrite newer state, so replays and redeliveries are harmless
+  private static final String UPSERT = "INSERT INTO order_view (order_id, user_id, status, "
+      + "total_amount, currency, payment_method, transaction_id, status_reason, items, "
+      + "created_at, updated_at, last_sequence) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) "
+      + "ON CONFLICT (order_id) DO UPDATE SET user_id = EXCLUDED.user_id, "
+      + "status = EXCLUDED.status, total_amount = EXCLUDED.total_amount, "
+      + "currency = EXCLUDED.currency, payment_method = EXCLUDED.payment_method, "
+      + "transaction_id = EXCLUDED.transaction_id, status_reason = EXCLUDED.status_reason, "
+      + "items = EXCLUDED.items, created_at = EXCLUDED.created_at, "
+      + "updated_at = EXCLUDED.updated_at, last_sequence = EXCLUDED.last_sequence "
+      + "WHERE order_view.last_sequence < EXCLUDED.last_sequence";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  public Optional<OrderView> findById(String orderId) {
+    return jdbcTemplate.query(SELECT_BY_ID, this::mapRow, orderId).stream().findFirst();
+  }
+
+  public int deleteAll() {
+    return jdbcTemplate.update("DELETE FROM order_view");
+  }
+
+  public void upsertAll(Collection<OrderView> views) {
+    List<Object[]> batchArgs = new ArrayList<>(views.size());
+    for (OrderView view : views) {
+      batchArgs.add(new Object[]{
+          view.getOrderId(),
+          view.getUserId(),
+          view.getStatus(),
+          view.getTotalAmount(),
+          view.getCurrency(),
+          view.getPaymentMethod(),
+          view.getTransactionId(),
+          view.getStatusReason(),
+          writeItems(view.getItems()),
+          toTimestamp(view.getCreatedAt()),
+          toTimestamp(view.getUpdatedAt()),
+          view.getLastSequence()
+      });
+    }
+    jdbcTemplate.batchUpdate(UPSERT, batchArgs);
+  }
+
+  private OrderView mapRow(ResultSet rs, int rowNum) throws SQLException {
+    OrderView view = new OrderView();
+    view.setOrderId(rs.getString("order_id"));
+    view.setUserId(rs.getObject("user_id", Long.class));
+    view.setStatus(rs.getString("status"));
+    view.setTotalAmount(rs.getBigDecimal("total_amount"));
+    view.setCurrency(rs.getString("currency"));
+    view.setPaymentMethod(rs.getString("payment_method"));
+    view.setTransactionId(rs.getString("transaction_id"));
+    view.setStatusReason(rs.getString("status_reason"));
+    view.setItems(readItems(rs.getString("items")));
+    Optional.ofNullable(rs.getTimestamp("created_at"))
+        .ifPresent(ts -> view.setCreatedAt(ts.toLocalDateTime()));
+    Optional.ofNullable(rs.getTimestamp("updated_at"))
+        .ifPresent(ts -> view.setUpdatedAt(ts.toLocalDateTime()));
+    view.setLastSequence(rs.getLong("last_sequence"));
+    return view;
+  }
+
+  private String writeItems(List<OrderCreatedEvent.OrderItem> items) {
+    try {
+      return objectMapper.writeValueAsString(items);
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize order view items", e);
+    }
+  }
+
+  private List<OrderCreatedEvent.OrderItem> readItems(String json) {
+    try {
+      return new ArrayList<>(objectMapper.readValue(json, ITEMS_TYPE));
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to deserialize order view items", e);
+    }
+  }
+
+  private static Timestamp toTimestamp(LocalDateTime dateTime) {
+    return dateTime != null ? Timestamp.valueOf(dateTime) : null;
+  }
+}
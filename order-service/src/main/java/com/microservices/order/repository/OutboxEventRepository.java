@@ -0,0 +1,55 @@
+package com.microservices.order.repository;
+
+import com.microservices.order.entity.OutboxEvent;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+  // Only the oldest live row of each aggregate is eligible, so an order's events reach Kafka in
+  // order even when a row is retried or another relay instance holds the previous one. Rows
+  // locked by another relay instance are skipped rather than waited on.
+  @Query(value = "SELECT * FROM order_outbox o "
+      + "WHERE o.published_at IS NULL AND o.attempts < :maxAttempts "
+      + "AND NOT EXISTS (SELECT 1 FROM order_outbox p "
+      + "WHERE p.aggregate_id = o.aggregate_id AND p.id < o.id "
+      + "AND p.published_at IS NULL AND p.attempts < :maxAttempts) "
+      + "ORDER BY o.id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<OutboxEvent> lockNextBatch(@Param("limit") int limit,
+      @Param("maxAttempts") int maxAttempts);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.publishedAt = :publishedAt WHERE e.id IN :ids")
+  int markPublished(@Param("ids") Collection<Long> ids,
+      @Param("publishedAt") LocalDateTime publishedAt);
+
+  @Modifying
+  @Query("UPDATE OutboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error "
+      + "WHERE e.id IN :ids")
+  int recordFailure(@Param("ids") Collection<Long> ids, @Param("error") String error);
+
+  // Deletes in bounded chunks so a large backlog does not hold locks for long
+  @Modifying
+  @Query(value = "DELETE FROM order_outbox WHERE id IN (SELECT id FROM order_outbox "
+      + "WHERE published_at < :cutoff LIMIT :limit)", nativeQuery = true)
+  int deletePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+  @Query("SELECT COUNT(e) FROM OutboxEvent e "
+      + "WHERE e.publishedAt IS NULL AND e.attempts < :maxAttempts")
+  long countPending(@Param("maxAttempts") int maxAttempts);
+
+  @Query("SELECT COUNT(e) FROM OutboxEvent e "
+      + "WHERE e.publishedAt IS NULL AND e.attempts >= :maxAttempts")
+  long countDead(@Param("maxAttempts") int maxAttempts);
+
+  @Query("SELECT MIN(e.createdAt) FROM OutboxEvent e "
+      + "WHERE e.publishedAt IS NULL AND e.attempts < :maxAttempts")
+  LocalDateTime findOldestPendingCreatedAt(@Param("maxAttempts") int maxAttempts);
+}
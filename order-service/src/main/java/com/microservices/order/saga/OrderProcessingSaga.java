@@ -3,12 +3,15 @@ package com.microservices.order.saga;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.microservices.common.commands.CompleteOrderCommand;
 import com.microservices.common.commands.FailOrderCommand;
+import com.microservices.common.commands.FulfillInventoryCommand;
 import com.microservices.common.commands.ProcessPaymentCommand;
 import com.microservices.common.commands.RefundPaymentCommand;
 import com.microservices.common.commands.ReleaseInventoryCommand;
 import com.microservices.common.commands.ReserveInventoryCommand;
 import com.microservices.common.commands.ReserveInventoryCommand.InventoryItem;
 import com.microservices.common.commands.ValidateUserCommand;
+import com.microservices.common.events.InventoryFulfilledEvent;
+import com.microservices.common.events.InventoryFulfillmentFailedEvent;
 import com.microservices.common.events.InventoryReservationFailedEvent;
 import com.microservices.common.events.InventoryReservedEvent;
 import com.microservices.common.events.OrderCancelledEvent;
@@ -19,7 +22,9 @@ import com.microservices.common.events.PaymentFailedEvent;
 import com.microservices.common.events.PaymentProcessedEvent;
 import com.microservices.common.events.UserValidatedEvent;
 import com.microservices.common.events.UserValidationFailedEvent;
+import com.microservices.order.service.EventProcessorMetrics;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -27,7 +32,8 @@ import java.util.Map;
 import java.util.stream.Collectors;
 import lombok.extern.slf4j.Slf4j;
 import org.axonframework.commandhandling.gateway.CommandGateway;
-import org.axonframework.modelling.saga.EndSaga;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.deadline.annotation.DeadlineHandler;
 import org.axonframework.modelling.saga.SagaEventHandler;
 import org.axonframework.modelling.saga.SagaLifecycle;
 import org.axonframework.modelling.saga.StartSaga;
@@ -48,12 +54,24 @@ public class OrderProcessingSaga {
   private boolean paymentProcessed = false;
   private LocalDateTime startedAt;
 
+  // The step deadline being waited for, kept in the store so it can be rescheduled on startup
+  private String pendingDeadline;
+  private LocalDateTime pendingDeadlineAt;
+
   // Track individual inventory reservations
   private Map<Long, Boolean> inventoryReservations = new HashMap<>();
 
   // ===== INFRASTRUCTURE DEPENDENCIES (will NOT be serialized) =====
   @JsonIgnore
   private transient CommandGateway commandGateway;
+  @JsonIgnore
+  private transient DeadlineManager deadlineManager;
+  @JsonIgnore
+  private transient OrderSagaDeadlines deadlines;
+  @JsonIgnore
+  private transient OrderSagaMetrics metrics;
+  @JsonIgnore
+  private transient EventProcessorMetrics processorMetrics;
 
   // ===== CONSTRUCTORS =====
   public OrderProcessingSaga() {
@@ -66,11 +84,32 @@ public class OrderProcessingSaga {
     this.commandGateway = commandGateway;
   }
 
+  @Autowired
+  public void setDeadlineManager(DeadlineManager deadlineManager) {
+    this.deadlineManager = deadlineManager;
+  }
+
+  @Autowired
+  public void setDeadlines(OrderSagaDeadlines deadlines) {
+    this.deadlines = deadlines;
+  }
+
+  @Autowired
+  public void setMetrics(OrderSagaMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Autowired
+  public void setProcessorMetrics(EventProcessorMetrics processorMetrics) {
+    this.processorMetrics = processorMetrics;
+  }
+
   // ===== SAGA EVENT HANDLERS - COORDINATION ONLY =====
 
   @StartSaga
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(OrderCreatedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Starting order processing saga for orderId: {}", event.getOrderId());
 
     this.orderId = event.getOrderId();
@@ -86,15 +125,20 @@ public class OrderProcessingSaga {
     SagaLifecycle.associateWith("orderId", orderId);
 
     // ✅ CORRECT - Send command to User aggregate
+    scheduleDeadline(deadlines.getUserValidation(), OrderSagaDeadlines.USER_VALIDATION);
     commandGateway.send(new ValidateUserCommand(orderId, userId));
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(UserValidatedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("User validation successful for orderId: {}", event.getOrderId());
     this.userValidated = true;
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.USER_VALIDATION);
 
     // ✅ CORRECT - Send commands to Inventory aggregate for each item
+    scheduleDeadline(deadlines.getInventoryReservation(),
+        OrderSagaDeadlines.INVENTORY_RESERVATION);
     commandGateway.send(new ReserveInventoryCommand(orderId,
         userId,
         orderItems.stream().map(item -> InventoryItem.builder().productId(item.getProductId())
@@ -105,6 +149,7 @@ public class OrderProcessingSaga {
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(UserValidationFailedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.error("User validation failed for orderId: {}", event.getOrderId());
 
     // ✅ CORRECT - Send command to Order aggregate to fail it
@@ -113,14 +158,18 @@ public class OrderProcessingSaga {
         "User validation failed: " + event.getReason(),
         "SAGA"
     ));
-    endSaga();
+    endSaga("failed");
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(InventoryReservedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Inventory reserved for orderId: {}", event.getOrderId());
+    this.inventoryReserved = true;
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.INVENTORY_RESERVATION);
 
     // ✅ CORRECT - Send command to Payment aggregate
+    scheduleDeadline(deadlines.getPayment(), OrderSagaDeadlines.PAYMENT);
     commandGateway.send(new ProcessPaymentCommand(
         orderId, // Use orderId as payment identifier
         userId,
@@ -133,30 +182,65 @@ public class OrderProcessingSaga {
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(InventoryReservationFailedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.error("Inventory reservation failed for orderId: {}", event.getOrderId());
 
+    // The reservation may have landed although the call failed, and a release also keeps a late
+    // reservation from landing; inventory-service ignores it when nothing is reserved
+    commandGateway.send(new ReleaseInventoryCommand(orderId, "Inventory reservation failed"));
+
     // ✅ CORRECT - Send command to Order aggregate
     commandGateway.send(new FailOrderCommand(
         orderId,
         "Inventory reservation failed: " + event.getReason(),
         "SAGA"
     ));
-    endSaga();
+    endSaga("failed");
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(PaymentProcessedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Payment processed for orderId: {}", event.getOrderId());
     this.paymentProcessed = true;
     this.transactionId = event.getTransactionId();
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.PAYMENT);
+
+    // Reserved stock leaves the warehouse with the paid order; the order completes once it has
+    scheduleDeadline(deadlines.getInventoryFulfillment(),
+        OrderSagaDeadlines.INVENTORY_FULFILLMENT);
+    commandGateway.send(new FulfillInventoryCommand(orderId));
+  }
+
+  @SagaEventHandler(associationProperty = "orderId")
+  public void handle(InventoryFulfilledEvent event) {
+    processorMetrics.sagaEventHandled();
+    log.info("Inventory fulfilled for orderId: {}", event.getOrderId());
 
     // ✅ CORRECT - Send command to Order aggregate to complete it
     commandGateway.send(new CompleteOrderCommand(orderId, transactionId, null));
-    endSaga();
+    endSaga("completed");
+  }
+
+  // The reservations expired or were released before payment finished, so no stock was shipped
+  @SagaEventHandler(associationProperty = "orderId")
+  public void handle(InventoryFulfillmentFailedEvent event) {
+    processorMetrics.sagaEventHandled();
+    log.error("Inventory fulfillment failed for orderId: {}", event.getOrderId());
+
+    commandGateway.send(new RefundPaymentCommand(orderId, transactionId,
+        "Inventory fulfillment failed"));
+    commandGateway.send(new FailOrderCommand(
+        orderId,
+        "Inventory fulfillment failed: " + event.getReason(),
+        "SAGA"
+    ));
+    endSaga("failed");
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(PaymentFailedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.error("Payment failed for orderId: {}", event.getOrderId());
 
     // ✅ CORRECT - Compensate by sending commands
@@ -175,11 +259,12 @@ public class OrderProcessingSaga {
         "Payment failed: " + event.getReason(),
         "SAGA"
     ));
-    endSaga();
+    endSaga("failed");
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(OrderCancelledEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Order cancelled during saga processing for orderId: {}", event.getOrderId());
 
     // ✅ CORRECT - Compensate via commands
@@ -197,19 +282,46 @@ public class OrderProcessingSaga {
       ));
     }
 
-    endSaga();
+    endSaga("cancelled");
   }
 
+  // Terminal order states end the saga, so its row and associations are removed from the store
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(OrderCompletedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Order completed successfully for orderId: {}", event.getOrderId());
-    // Saga ends naturally - no @EndSaga needed here as it's handled by the event
+    endSaga("completed");
   }
 
   @SagaEventHandler(associationProperty = "orderId")
   public void handle(OrderFailedEvent event) {
+    processorMetrics.sagaEventHandled();
     log.info("Order failed for orderId: {}", event.getOrderId());
-    // Saga ends naturally - no @EndSaga needed here as it's handled by the event
+    endSaga("failed");
+  }
+
+  // ===== DEADLINE HANDLERS - BOUNDED WAIT PER STEP =====
+
+  @DeadlineHandler(deadlineName = OrderSagaDeadlines.USER_VALIDATION)
+  public void onUserValidationTimeout() {
+    compensateTimeout(OrderSagaDeadlines.USER_VALIDATION, "User validation timed out");
+  }
+
+  @DeadlineHandler(deadlineName = OrderSagaDeadlines.INVENTORY_RESERVATION)
+  public void onInventoryReservationTimeout() {
+    compensateTimeout(OrderSagaDeadlines.INVENTORY_RESERVATION,
+        "Inventory reservation timed out");
+  }
+
+  @DeadlineHandler(deadlineName = OrderSagaDeadlines.PAYMENT)
+  public void onPaymentTimeout() {
+    compensateTimeout(OrderSagaDeadlines.PAYMENT, "Payment timed out");
+  }
+
+  @DeadlineHandler(deadlineName = OrderSagaDeadlines.INVENTORY_FULFILLMENT)
+  public void onInventoryFulfillmentTimeout() {
+    compensateTimeout(OrderSagaDeadlines.INVENTORY_FULFILLMENT,
+        "Inventory fulfillment timed out");
   }
 
   // ===== HELPER METHODS =====
@@ -225,9 +337,42 @@ public class OrderProcessingSaga {
         .reduce(BigDecimal.ZERO, BigDecimal::add);
   }
 
-  @EndSaga
-  public void endSaga() {
-    log.info("Ending order processing saga for orderId: {}", orderId);
+  private void scheduleDeadline(Duration timeout, String deadline) {
+    this.pendingDeadline = deadline;
+    this.pendingDeadlineAt = LocalDateTime.now().plus(timeout);
+    deadlineManager.schedule(timeout, deadline);
+  }
+
+  private void compensateTimeout(String deadline, String reason) {
+    // Deadlines rescheduled on startup may belong to a step this saga has already passed
+    if (!deadline.equals(pendingDeadline)) {
+      log.debug("Ignoring stale deadline {} for orderId: {}", deadline, orderId);
+      return;
+    }
+    log.warn("⏰ Saga deadline {} expired for orderId: {}, compensating", deadline, orderId);
+    metrics.deadlineFired(deadline);
+
+    // A reservation still in flight may succeed after the deadline; releasing is idempotent
+    if (inventoryReserved || OrderSagaDeadlines.INVENTORY_RESERVATION.equals(deadline)) {
+      commandGateway.send(new ReleaseInventoryCommand(orderId, reason));
+    }
+    if (paymentProcessed) {
+      commandGateway.send(new RefundPaymentCommand(orderId, transactionId, reason));
+    }
+    commandGateway.send(new FailOrderCommand(orderId, reason, "SAGA"));
+    endSaga("timed-out");
+  }
+
+  private void endSaga(String outcome) {
+    log.info("Ending order processing saga for orderId: {} ({})", orderId, outcome);
+    // Pending deadlines would otherwise fire later against a saga that no longer exists
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.USER_VALIDATION);
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.INVENTORY_RESERVATION);
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.PAYMENT);
+    deadlineManager.cancelAllWithinScope(OrderSagaDeadlines.INVENTORY_FULFILLMENT);
+    if (startedAt != null) {
+      metrics.sagaEnded(Duration.between(startedAt, LocalDateTime.now()), outcome);
+    }
     SagaLifecycle.end();
   }
 
@@ -297,6 +442,22 @@ public class OrderProcessingSaga {
     this.startedAt = startedAt;
   }
 
+  public String getPendingDeadline() {
+    return pendingDeadline;
+  }
+
+  public void setPendingDeadline(String pendingDeadline) {
+    this.pendingDeadline = pendingDeadline;
+  }
+
+  public LocalDateTime getPendingDeadlineAt() {
+    return pendingDeadlineAt;
+  }
+
+  public void setPendingDeadlineAt(LocalDateTime pendingDeadlineAt) {
+    this.pendingDeadlineAt = pendingDeadlineAt;
+  }
+
   public Map<Long, Boolean> getInventoryReservations() {
     return inventoryReservations;
   }
@@ -0,0 +1,77 @@
+package com.microservices.order.saga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.configuration.SagaStoreConfiguration;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.deadline.DeadlineManager;
+import org.axonframework.modelling.saga.SagaScopeDescriptor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Step deadlines are held in memory, so a restart loses them while the sagas themselves are
+ * stored. On startup every stored saga gets its pending deadline scheduled again; deadlines that
+ * passed while the service was down fire right away and compensate the order.
+ */
+@Component
+@Slf4j
+public class OrderSagaDeadlineRecovery {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final DeadlineManager deadlineManager;
+  private final ObjectMapper sagaStateMapper = SagaStoreConfiguration.sagaStateMapper();
+
+  public OrderSagaDeadlineRecovery(JdbcTemplate jdbcTemplate, DeadlineManager deadlineManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.deadlineManager = deadlineManager;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void rescheduleDeadlines() {
+    AtomicInteger rescheduled = new AtomicInteger();
+    try {
+      Instant now = Instant.now();
+      jdbcTemplate.query(
+          "SELECT saga_id, serialized_saga FROM saga_entry WHERE saga_type = ?",
+          row -> {
+            PendingDeadline pending = read(row.getString("saga_id"),
+                row.getBytes("serialized_saga"));
+            if (pending == null || pending.pendingDeadline() == null
+                || pending.pendingDeadlineAt() == null) {
+              return;
+            }
+            Instant triggerAt = pending.pendingDeadlineAt()
+                .atZone(ZoneId.systemDefault()).toInstant();
+            deadlineManager.schedule(triggerAt.isBefore(now) ? now : triggerAt,
+                pending.pendingDeadline(), null,
+                new SagaScopeDescriptor(OrderProcessingSaga.class.getSimpleName(),
+                    row.getString("saga_id")));
+            rescheduled.incrementAndGet();
+          },
+          OrderProcessingSaga.class.getName());
+      log.info("⏰ Rescheduled {} saga step deadlines", rescheduled.get());
+    } catch (Exception e) {
+      log.error("❌ Failed to reschedule saga step deadlines: {}", e.getMessage(), e);
+    }
+  }
+
+  private PendingDeadline read(String sagaId, byte[] serializedSaga) {
+    try {
+      return sagaStateMapper.readValue(serializedSaga, PendingDeadline.class);
+    } catch (IOException e) {
+      log.warn("Could not read saga {}: {}", sagaId, e.getMessage());
+      return null;
+    }
+  }
+
+  private record PendingDeadline(String pendingDeadline, LocalDateTime pendingDeadlineAt) {
+
+  }
+}
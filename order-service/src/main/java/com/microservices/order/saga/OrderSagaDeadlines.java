@@ -0,0 +1,36 @@
+package com.microservices.order.saga;
+
+import java.time.Duration;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * How long OrderProcessingSaga waits for each step's result event before compensating.
+ */
+@Component
+@Getter
+public class OrderSagaDeadlines {
+
+  public static final String USER_VALIDATION = "user-validation";
+  public static final String INVENTORY_RESERVATION = "inventory-reservation";
+  public static final String PAYMENT = "payment";
+  public static final String INVENTORY_FULFILLMENT = "inventory-fulfillment";
+
+  private final Duration userValidation;
+  private final Duration inventoryReservation;
+  private final Duration payment;
+  private final Duration inventoryFulfillment;
+
+  public OrderSagaDeadlines(
+      @Value("${order.saga.deadlines.user-validation:5s}") Duration userValidation,
+      @Value("${order.saga.deadlines.inventory-reservation:10s}") Duration inventoryReservation,
+      @Value("${order.saga.deadlines.payment:30s}") Duration payment,
+      @Value("${order.saga.deadlines.inventory-fulfillment:10s}")
+      Duration inventoryFulfillment) {
+    this.userValidation = userValidation;
+    this.inventoryReservation = inventoryReservation;
+    this.payment = payment;
+    this.inventoryFulfillment = inventoryFulfillment;
+  }
+}
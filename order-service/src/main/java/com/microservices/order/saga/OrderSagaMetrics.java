@@ -0,0 +1,91 @@
+package com.microservices.order.saga;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Saga population metrics. The active count and ages are read from the saga store, so they cover
+ * sagas started on every replica and show sagas stuck waiting; lifetimes and fired deadlines are
+ * recorded as sagas end.
+ */
+@Component
+@Slf4j
+public class OrderSagaMetrics {
+
+  private final JdbcTemplate jdbcTemplate;
+  private final MeterRegistry meterRegistry;
+  private final AtomicLong active = new AtomicLong();
+  // Ages of the active sagas in milliseconds, by quantile ("max" for the oldest)
+  private final Map<String, AtomicLong> activeAge = new LinkedHashMap<>();
+
+  public OrderSagaMetrics(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.meterRegistry = meterRegistry;
+
+    Gauge.builder("order.saga.active", active, AtomicLong::get)
+        .description("Order processing sagas not yet ended")
+        .register(meterRegistry);
+
+    for (String quantile : List.of("0.5", "0.95", "0.99", "max")) {
+      AtomicLong age = new AtomicLong();
+      activeAge.put(quantile, age);
+      Gauge.builder("order.saga.active.age", age, value -> value.get() / 1000.0)
+          .description("Time since active order processing sagas started")
+          .baseUnit("seconds")
+          .tag("quantile", quantile)
+          .register(meterRegistry);
+    }
+  }
+
+  public void sagaEnded(Duration lifetime, String outcome) {
+    Timer.builder("order.saga.lifetime")
+        .description("Time from saga start to end")
+        .tag("outcome", outcome)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(lifetime);
+  }
+
+  public void deadlineFired(String deadline) {
+    Counter.builder("order.saga.deadlines")
+        .description("Saga step deadlines that expired and triggered compensation")
+        .tag("deadline", deadline)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  @Scheduled(fixedDelayString = "${order.saga.metrics.refresh-interval-ms:15000}")
+  public void refreshActiveSagas() {
+    try {
+      jdbcTemplate.query("""
+              SELECT COUNT(*) AS active,
+                     percentile_cont(0.5) WITHIN GROUP (ORDER BY age) AS "0.5",
+                     percentile_cont(0.95) WITHIN GROUP (ORDER BY age) AS "0.95",
+                     percentile_cont(0.99) WITHIN GROUP (ORDER BY age) AS "0.99",
+                     MAX(age) AS "max"
+              FROM (SELECT EXTRACT(EPOCH FROM (now() - created_at)) * 1000 AS age
+                    FROM saga_entry WHERE saga_type = ?) ages
+              """,
+          row -> {
+            active.set(row.getLong("active"));
+            for (Map.Entry<String, AtomicLong> age : activeAge.entrySet()) {
+              age.getValue().set(row.getLong(age.getKey()));
+            }
+          },
+          OrderProcessingSaga.class.getName());
+    } catch (Exception e) {
+      log.warn("Failed to refresh active saga metrics: {}", e.getMessage());
+    }
+  }
+}
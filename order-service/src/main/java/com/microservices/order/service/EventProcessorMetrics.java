@@ -0,0 +1,117 @@
+package com.microservices.order.service;
+
+import com.microservices.order.configuration.EventProcessorConfiguration;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.config.EventProcessingConfiguration;
+import org.axonframework.eventhandling.EventMessage;
+import org.axonframework.eventhandling.EventTrackerStatus;
+import org.axonframework.eventhandling.StreamingEventProcessor;
+import org.axonframework.eventsourcing.eventstore.EventStore;
+import org.axonframework.messaging.MessageHandlerInterceptor;
+import org.axonframework.messaging.unitofwork.CurrentUnitOfWork;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-segment metrics of the streaming event processors: events handled per segment (the rate is
+ * the segment's throughput) and how far each segment's token trails the head of the event store.
+ */
+@Component
+@Slf4j
+public class EventProcessorMetrics {
+
+  private static final List<String> PROCESSORS = List.of(
+      EventProcessorConfiguration.SAGA_PROCESSOR, EventProcessorConfiguration.PROJECTION_PROCESSOR);
+
+  private final ObjectProvider<EventProcessingConfiguration> eventProcessingConfiguration;
+  private final ObjectProvider<EventStore> eventStore;
+  private final MeterRegistry meterRegistry;
+  private final Map<String, AtomicLong> lag = new ConcurrentHashMap<>();
+  private final Map<String, Counter> handled = new ConcurrentHashMap<>();
+
+  // Resolved lazily: the Axon configuration itself depends on this component's interceptors
+  public EventProcessorMetrics(
+      ObjectProvider<EventProcessingConfiguration> eventProcessingConfiguration,
+      ObjectProvider<EventStore> eventStore,
+      MeterRegistry meterRegistry) {
+    this.eventProcessingConfiguration = eventProcessingConfiguration;
+    this.eventStore = eventStore;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public MessageHandlerInterceptor<EventMessage<?>> handledEventsInterceptor(String processor) {
+    return (unitOfWork, interceptorChain) -> {
+      handledCounter(processor, unitOfWork.getResource(segmentKey(processor))).increment();
+      return interceptorChain.proceed();
+    };
+  }
+
+  // A saga processor hands every event to every segment, and only the segment owning the saga
+  // invokes it, so the saga records its events itself instead of through an interceptor
+  public void sagaEventHandled() {
+    String processor = EventProcessorConfiguration.SAGA_PROCESSOR;
+    Object segment = CurrentUnitOfWork.isStarted()
+        ? CurrentUnitOfWork.get().root().getResource(segmentKey(processor))
+        : null;
+    handledCounter(processor, segment).increment();
+  }
+
+  @Scheduled(fixedDelayString = "${order.processor.metrics.refresh-interval-ms:10000}")
+  public void refreshLag() {
+    try {
+      OptionalLong head = eventStore.getObject().createHeadToken().position();
+      if (head.isEmpty()) {
+        return;
+      }
+
+      for (String processorName : PROCESSORS) {
+        eventProcessingConfiguration.getObject()
+            .eventProcessor(processorName, StreamingEventProcessor.class)
+            .ifPresent(processor -> processor.processingStatus().forEach((segment, status) ->
+                segmentLag(processorName, segment).set(lagOf(status, head.getAsLong()))));
+      }
+    } catch (Exception e) {
+      log.warn("Failed to refresh event processor lag: {}", e.getMessage());
+    }
+  }
+
+  private Counter handledCounter(String processor, Object segment) {
+    return handled.computeIfAbsent(processor + "/" + segment, key -> Counter.builder(
+            "order.processor.events")
+        .description("Events handled per event processor segment")
+        .tag("processor", processor)
+        .tag("segment", String.valueOf(segment))
+        .register(meterRegistry));
+  }
+
+  private static String segmentKey(String processor) {
+    return "Processor[" + processor + "]/SegmentId";
+  }
+
+  private AtomicLong segmentLag(String processor, Integer segment) {
+    return lag.computeIfAbsent(processor + "/" + segment, key -> {
+      AtomicLong value = new AtomicLong();
+      Gauge.builder("order.processor.lag", value, AtomicLong::get)
+          .description("Events between the head of the event store and the segment's token")
+          .baseUnit("events")
+          .tag("processor", processor)
+          .tag("segment", String.valueOf(segment))
+          .register(meterRegistry);
+      return value;
+    });
+  }
+
+  private static long lagOf(EventTrackerStatus status, long head) {
+    OptionalLong current = status.getCurrentPosition();
+    return current.isPresent() ? Math.max(0, head - current.getAsLong()) : head;
+  }
+}
@@ -4,7 +4,11 @@ import com.microservices.order.client.InventoryServiceClient;
 import com.microservices.order.dto.CreateOrderRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,28 +29,38 @@ public class InventoryService {
     log.info("🔍 Checking inventory for {} items", items.size());
 
     try {
-      List<InventoryServiceClient.InventoryResponse> inventoryChecks = items.stream()
-          .map(item -> {
-            log.debug("Checking inventory for productId: {}, quantity: {}",
-                item.getProductId(), item.getQuantity());
-
-            InventoryServiceClient.InventoryResponse inventory =
-                inventoryClient.checkInventory(item.getProductId(), item.getQuantity());
-
-            if (inventory == null) {
-              throw new RuntimeException(
-                  "No inventory response for product: " + item.getProductId());
-            }
-
-            if (!inventory.isAvailable()) {
-              throw new RuntimeException("Product " + item.getProductId() +
-                  " is not available in requested quantity. Available: " +
-                  inventory.getAvailableQuantity() + ", Requested: " + item.getQuantity());
-            }
-            return inventory;
-          })
+      List<InventoryServiceClient.InventoryCheckItem> checkItems = items.stream()
+          .map(item -> new InventoryServiceClient.InventoryCheckItem(
+              item.getProductId(), item.getQuantity()))
           .collect(Collectors.toList());
 
+      InventoryServiceClient.BatchInventoryResponse batchResponse =
+          inventoryClient.checkInventoryBatch(checkItems);
+
+      if (batchResponse == null || batchResponse.getItems() == null) {
+        throw new RuntimeException("No inventory response for " + items.size() + " items");
+      }
+
+      List<String> failures = new ArrayList<>();
+      Optional.ofNullable(batchResponse.getMissingProductIds())
+          .ifPresent(missing -> missing.forEach(productId ->
+              failures.add("Product " + productId + " not found")));
+
+      List<InventoryServiceClient.InventoryResponse> inventoryChecks = batchResponse.getItems();
+      for (InventoryServiceClient.InventoryResponse inventory : inventoryChecks) {
+        if (!inventory.isAvailable()) {
+          failures.add("Product " + inventory.getProductId()
+              + " is not available in requested quantity. Available: "
+              + inventory.getAvailableQuantity() + ", Requested: "
+              + requestedQuantity(items, inventory.getProductId()));
+        }
+      }
+
+      if (!failures.isEmpty()) {
+        throw new RuntimeException("Inventory validation failed for "
+            + failures.size() + " item(s): " + String.join("; ", failures));
+      }
+
       log.info("✅ Successfully validated inventory for all {} items", items.size());
       return inventoryChecks;
 
@@ -56,6 +70,42 @@ public class InventoryService {
     }
   }
 
+  private Integer requestedQuantity(List<CreateOrderRequest.OrderItemRequest> items,
+      Long productId) {
+    return items.stream()
+        .filter(item -> item.getProductId().equals(productId))
+        .map(CreateOrderRequest.OrderItemRequest::getQuantity)
+        .reduce(0, Integer::sum);
+  }
+
+  @CircuitBreaker(name = "inventory-service", fallbackMethod = "fallbackProductNames")
+  public Map<Long, String> getProductNames(Collection<Long> productIds) {
+    log.info("🔍 Fetching names for {} products", productIds.size());
+
+    // The batch check doubles as a bulk product lookup; quantity 1 is the minimum it accepts
+    List<InventoryServiceClient.InventoryCheckItem> checkItems = productIds.stream()
+        .map(productId -> new InventoryServiceClient.InventoryCheckItem(productId, 1))
+        .collect(Collectors.toList());
+
+    InventoryServiceClient.BatchInventoryResponse batchResponse =
+        inventoryClient.checkInventoryBatch(checkItems);
+    if (batchResponse == null || batchResponse.getItems() == null) {
+      return Map.of();
+    }
+
+    return batchResponse.getItems().stream()
+        .filter(inventory -> inventory.getProductName() != null)
+        .collect(Collectors.toMap(InventoryServiceClient.InventoryResponse::getProductId,
+            InventoryServiceClient.InventoryResponse::getProductName,
+            (first, second) -> first));
+  }
+
+  public Map<Long, String> fallbackProductNames(Collection<Long> productIds, Exception ex) {
+    log.warn("🔄 Product name lookup unavailable, leaving {} names empty. Error: {}",
+        productIds.size(), ex.getMessage());
+    return Map.of();
+  }
+
   // ✅ Fallback method with EXACT same signature
   public List<InventoryServiceClient.InventoryResponse> fallbackInventoryCheck(
       List<CreateOrderRequest.OrderItemRequest> items, Exception ex) {
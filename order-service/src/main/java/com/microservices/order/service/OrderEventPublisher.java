@@ -1,26 +1,26 @@
 package com.microservices.order.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.microservices.order.dto.OrderEventDto;
 import com.microservices.order.entity.Order;
+import com.microservices.order.entity.OutboxEvent;
+import com.microservices.order.repository.OutboxEventRepository;
 import java.time.LocalDateTime;
-import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
+@Transactional
 public class OrderEventPublisher {
 
-  private final KafkaTemplate<String, OrderEventDto> kafkaTemplate;
-
-  @Value("${spring.kafka.topic.order-events}")
-  private String orderEventsTopic;
+  private final OutboxEventRepository outboxEventRepository;
+  private final ObjectMapper objectMapper;
 
   public void publishOrderCreatedEvent(Order order, String userEmail) {
     OrderEventDto event = OrderEventDto.builder()
@@ -73,20 +73,15 @@ public class OrderEventPublisher {
     publishEvent(event);
   }
 
+  // Written in the caller's transaction; OutboxRelay sends it to Kafka after commit
   private void publishEvent(OrderEventDto event) {
-    CompletableFuture<SendResult<String, OrderEventDto>> future =
-        kafkaTemplate.send(orderEventsTopic, event.getOrderId().toString(), event);
-
-    future.whenComplete((result, ex) -> {
-      if (ex == null) {
-        log.info("Published order event: orderId={}, eventType={}, partition={}, offset={}",
-            event.getOrderId(), event.getEventType(),
-            result.getRecordMetadata().partition(),
-            result.getRecordMetadata().offset());
-      } else {
-        log.error("Failed to publish order event: orderId={}, error={}",
-            event.getOrderId(), ex.getMessage(), ex);
-      }
-    });
+    try {
+      outboxEventRepository.save(new OutboxEvent(event.getOrderId().toString(),
+          event.getEventType(), objectMapper.writeValueAsString(event)));
+      log.debug("Queued order event in outbox: orderId={}, eventType={}",
+          event.getOrderId(), event.getEventType());
+    } catch (JsonProcessingException e) {
+      throw new RuntimeException("Failed to serialize order event: " + e.getMessage(), e);
+    }
   }
-}
\ No newline at end of file
+}
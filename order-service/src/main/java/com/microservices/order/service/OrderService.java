@@ -1,25 +1,36 @@
 package com.microservices.order.service;
 
+import com.microservices.order.cache.UserOrdersCache;
 import com.microservices.order.client.InventoryServiceClient;
 import com.microservices.order.client.PaymentServiceClient;
 import com.microservices.order.client.UserServiceClient;
 import com.microservices.order.dto.CreateOrderRequest;
+import com.microservices.order.dto.OrderConnection;
+import com.microservices.order.dto.OrderItemView;
 import com.microservices.order.dto.OrderResponse;
+import com.microservices.order.dto.OrderSummaryView;
 import com.microservices.order.entity.Order;
 import com.microservices.order.entity.OrderItem;
 import com.microservices.order.entity.OrderStatus;
+import com.microservices.order.query.FindOrderQuery;
 import com.microservices.order.repository.OrderRepository;
 import io.opentelemetry.api.trace.Span;
 import io.opentelemetry.api.trace.Tracer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.QueryGateway;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,66 +39,104 @@ import org.springframework.transaction.annotation.Transactional;
 @Slf4j
 public class OrderService {
 
+  private static final int DEFAULT_PAGE_SIZE = 20;
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final String CURSOR_PREFIX = "order:";
+
   private final OrderRepository orderRepository;
   private final InventoryService inventoryValidationService;
-  private final UserServiceClient userClient;
   private final PaymentServiceClient paymentClient;
   private final Tracer tracer;
+  private final OrderValidationFanOut validationFanOut;
   private OrderEventPublisher orderEventPublisher;
-
-  // Add this method to OrderService.java
-  @Cacheable(value = "userOrders", key = "#userId", unless = "#result == null or #result.isEmpty()")
-  public List<OrderResponse> getOrdersByUserId(Long userId) {
-    log.info("🔍 Fetching orders from database (cache miss) for userId: {}", userId);
-
-    List<Order> orders = orderRepository.findByUserIdOrderByIdDesc(userId);
-
-    if (orders.isEmpty()) {
-      log.info("No orders found for user: {}", userId);
-      return List.of();
+  private final UserOrdersCache userOrdersCache;
+  private final QueryGateway queryGateway;
+  private final UserLookupService userLookupService;
+
+  // ✅ Served from the per-user listing in Redis when it covers the requested page
+  public OrderConnection getOrdersByUserId(Long userId, Integer first, String after) {
+    int pageSize = first == null
+        ? DEFAULT_PAGE_SIZE
+        : Math.min(Math.max(first, 1), MAX_PAGE_SIZE);
+    Long afterId = after == null ? null : decodeCursor(after);
+
+    Optional<UserOrdersCache.Page> cached = userOrdersCache.readPage(userId, pageSize, afterId);
+    if (cached.isPresent()) {
+      log.info("🎯 {} orders served from cache for user: {}", cached.get().orders().size(),
+          userId);
+      return toConnection(cached.get().orders(), cached.get().hasNextPage(), after);
     }
 
+    log.info("🔍 Fetching {} orders from database (cache miss) for userId: {}, after: {}",
+        pageSize, userId, after);
+    // Read before the query, so orders added or changed meanwhile keep the page out of the cache
+    long cacheVersion = userOrdersCache.version(userId);
+
+    // Read-only repository transactions; none is held open across the user-service call below.
+    // One extra row tells us whether another page exists.
+    Limit limit = Limit.of(pageSize + 1);
+    List<OrderSummaryView> summaries = after == null
+        ? orderRepository.findSummariesByUserId(userId, limit)
+        : orderRepository.findSummariesByUserIdAfter(userId, afterId, limit);
+
+    boolean hasNextPage = summaries.size() > pageSize;
+    List<OrderSummaryView> page = hasNextPage ? summaries.subList(0, pageSize) : summaries;
+
+    // Items for the whole page in one query instead of one lazy load per order
+    Map<Long, List<OrderItemView>> itemsByOrderId = page.isEmpty()
+        ? Map.of()
+        : orderRepository.findItemViewsByOrderIds(
+                page.stream().map(OrderSummaryView::getId).collect(Collectors.toList()))
+            .stream()
+            .collect(Collectors.groupingBy(OrderItemView::getOrderId));
+
     // Get user info once and reuse
-    UserServiceClient.UserResponse user = getUserWithCache(userId);
+    UserServiceClient.UserResponse user = page.isEmpty()
+        ? null
+        : userLookupService.getUserWithCache(userId);
 
-    List<OrderResponse> responses = orders.stream()
-        .map(order -> buildOrderResponse(order, user, null, null))
+    List<OrderResponse> orders = page.stream()
+        .map(order -> buildOrderResponse(order,
+            itemsByOrderId.getOrDefault(order.getId(), List.of()), user))
         .collect(Collectors.toList());
+    userOrdersCache.storePage(userId, cacheVersion, afterId, orders, hasNextPage);
 
-    log.info("✅ {} orders retrieved from database and cached for user: {}", orders.size(), userId);
-    return responses;
+    log.info("✅ {} orders retrieved from database and cached for user: {}", orders.size(),
+        userId);
+    return toConnection(orders, hasNextPage, after);
   }
 
   // ✅ Cache order retrieval
-  @Cacheable(value = "orders", key = "#orderId", unless = "#result == null")
+  @Cacheable(value = "orders", key = "#orderId", sync = true)
   public OrderResponse getOrderById(Long orderId) {
     log.info("🔍 Fetching order from database (cache miss) for orderId: {}", orderId);
 
-    Order order = orderRepository.findById(orderId)
+    Order order = orderRepository.findWithItemsById(orderId)
         .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
-
-    UserServiceClient.UserResponse user = getUserWithCache(order.getUserId());
+    UserServiceClient.UserResponse user = userLookupService.getUserWithCache(order.getUserId());
     OrderResponse response = buildOrderResponse(order, user, null, null);
 
     log.info("✅ Order {} retrieved from database and cached", orderId);
     return response;
   }
 
-  // ✅ Cache user information
-  @Cacheable(value = "users", key = "#userId", unless = "#result == null")
-  public UserServiceClient.UserResponse getUserWithCache(Long userId) {
-    log.info("🔍 Fetching user from service (cache miss) for userId: {}", userId);
-    UserServiceClient.UserResponse user = userClient.getUserById(userId);
-    log.info("✅ User {} retrieved from service and cached", userId);
-    return user;
+  // Saga-driven orders only exist in the event store and its projection. Their ids are random
+  // and may match a relational id, so they are looked up on their own.
+  @Cacheable(value = "sagaOrders", key = "#orderId", sync = true)
+  public OrderResponse getSagaOrderById(String orderId) {
+    log.info("🔍 Fetching saga order from the order projection (cache miss): {}", orderId);
+
+    OrderResponse response = queryGateway.query(new FindOrderQuery(orderId),
+            ResponseTypes.optionalInstanceOf(OrderResponse.class))
+        .join()
+        .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+
+    log.info("✅ Saga order {} retrieved from the order projection and cached", orderId);
+    return response;
   }
 
-  // ✅ Evict cache when order is created/updated
+  // ✅ New orders are added to the cached listing instead of invalidating it
   @Transactional
-  @Caching(evict = {
-      @CacheEvict(value = "orders", key = "#result.id", condition = "#result != null"),
-      @CacheEvict(value = "users", key = "#request.userId")
-  })
   public OrderResponse createOrder(CreateOrderRequest request) {
     Span span = tracer.spanBuilder("create-order")
         .setAttribute("user.id", request.getUserId())
@@ -97,40 +146,48 @@ public class OrderService {
     try {
       log.info("🛒 Creating new order for user: {}", request.getUserId());
 
-      // 1. Validate user exists (this will cache the user if not already cached)
-      UserServiceClient.UserResponse user = getUserWithCache(request.getUserId());
-      if (user == null) {
-        throw new RuntimeException("User not found with ID: " + request.getUserId());
-      }
-
-      // 2. Use separate service for circuit breaker
-      log.info("📦 Starting inventory validation for order...");
-      List<InventoryServiceClient.InventoryResponse> inventoryChecks =
-          inventoryValidationService.validateInventory(request.getItems());
+      // 1. Validate user exists and 2. validate inventory (concurrently in fan-out mode)
+      log.info("📦 Starting user and inventory validation for order...");
+      OrderValidationFanOut.ValidationResult validation = validationFanOut.validate(
+          () -> {
+            // this will cache the user if not already cached
+            UserServiceClient.UserResponse found =
+                userLookupService.getUserWithCache(request.getUserId());
+            if (found == null) {
+              throw new RuntimeException("User not found with ID: " + request.getUserId());
+            }
+            return found;
+          },
+          // Use separate service for circuit breaker
+          () -> inventoryValidationService.validateInventory(request.getItems()));
+
+      UserServiceClient.UserResponse user = validation.user();
+      List<InventoryServiceClient.InventoryResponse> inventoryChecks = validation.inventory();
 
       // 3. Create order
       BigDecimal totalAmount = calculateTotalAmount(request.getItems(), inventoryChecks);
 
-      Order order = orderRepository.save(
-          new Order(request.getUserId(), totalAmount, OrderStatus.PENDING));
+      // Validation already passed, so the order is confirmed before the first flush
+      Order order = new Order(request.getUserId(), totalAmount, OrderStatus.CONFIRMED);
 
       // 4. Create order items
       List<OrderItem> orderItems = createOrderItems(request.getItems(), inventoryChecks, order);
       order.setOrderItems(orderItems);
-      order = orderRepository.save(order);
 
-      // 5. Update order status
-      order.setStatus(OrderStatus.CONFIRMED);
+      // 5. Persist order and items (cascaded, inserted as one JDBC batch on commit)
       order = orderRepository.save(order);
 
-      // Publish event to Kafka
+      // Queue event in the outbox (same transaction as the order)
       orderEventPublisher.publishOrderCreatedEvent(order, user.getEmail());
 
       // 6. Build response
       OrderResponse response = buildOrderResponse(order, user, inventoryChecks, "CONFIRMED");
 
-      log.info("✅ Order created successfully with ID: {}, cache evicted for future consistency",
-          order.getId());
+      // Listing entries carry no product names or payment status, same as when loaded from DB
+      userOrdersCache.prepend(order.getUserId(), buildOrderResponse(order, user, null, null));
+
+      log.info("✅ Order created successfully with ID: {}, added to cached orders of user {}",
+          order.getId(), order.getUserId());
       return response;
 
     } finally {
@@ -138,6 +195,28 @@ public class OrderService {
     }
   }
 
+  // ✅ Evict the order and patch its entry in the cached listing
+  @Transactional
+  @CacheEvict(value = "orders", key = "#orderId")
+  public OrderResponse updateOrderStatus(Long orderId, OrderStatus status) {
+    Order order = orderRepository.findById(orderId)
+        .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+
+    log.info("🔄 Updating order {} status from {} to {}", orderId, order.getStatus(), status);
+    order.setStatus(status);
+    order.setUpdatedAt(LocalDateTime.now());
+
+    // Status consumers only need the order, not the user's email
+    if (status == OrderStatus.CANCELLED) {
+      orderEventPublisher.publishOrderCancelledEvent(order, null);
+    } else {
+      orderEventPublisher.publishOrderUpdatedEvent(order, null);
+    }
+    userOrdersCache.patchStatus(order.getUserId(), orderId, status.name());
+
+    return buildOrderResponse(order, null, null, null);
+  }
+
   // ✅ Method to manually evict cache (useful for testing)
   @CacheEvict(value = {"orders", "users"}, allEntries = true)
   public void evictAllCaches() {
@@ -150,6 +229,44 @@ public class OrderService {
     log.info("🗑️ Cache evicted for orderId: {}", orderId);
   }
 
+  private static OrderConnection toConnection(List<OrderResponse> orders, boolean hasNextPage,
+      String after) {
+    List<OrderConnection.OrderEdge> edges = orders.stream()
+        .map(order -> new OrderConnection.OrderEdge(encodeCursor(Long.valueOf(order.getId())),
+            order))
+        .collect(Collectors.toList());
+
+    OrderConnection.PageInfo pageInfo = new OrderConnection.PageInfo(
+        hasNextPage,
+        after != null,
+        edges.isEmpty() ? null : edges.get(0).getCursor(),
+        edges.isEmpty() ? null : edges.get(edges.size() - 1).getCursor());
+    return new OrderConnection(edges, pageInfo);
+  }
+
+  // Opaque, URL-safe keyset cursor over order ids
+  static String encodeCursor(Long orderId) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString((CURSOR_PREFIX + orderId).getBytes(StandardCharsets.UTF_8));
+  }
+
+  static Long decodeCursor(String cursor) {
+    String decoded;
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+    if (!decoded.startsWith(CURSOR_PREFIX)) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor);
+    }
+    try {
+      return Long.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor, e);
+    }
+  }
+
   private BigDecimal calculateTotalAmount(List<CreateOrderRequest.OrderItemRequest> items,
       List<InventoryServiceClient.InventoryResponse> inventoryChecks) {
     return inventoryChecks.stream()
@@ -181,6 +298,31 @@ public class OrderService {
         .collect(Collectors.toList());
   }
 
+  private OrderResponse buildOrderResponse(OrderSummaryView order, List<OrderItemView> items,
+      UserServiceClient.UserResponse user) {
+    OrderResponse response = new OrderResponse();
+    response.setId(String.valueOf(order.getId()));
+    Optional.ofNullable(user).ifPresent(u -> {
+      response.setUserId(u.getId());
+      response.setUserName(u.getUsername());
+    });
+
+    response.setTotalAmount(order.getTotalAmount());
+    response.setStatus(order.getStatus().name());
+
+    response.setItems(items.stream()
+        .map(item -> {
+          OrderResponse.OrderItemResponse itemResp = new OrderResponse.OrderItemResponse();
+          itemResp.setProductId(item.getProductId());
+          itemResp.setQuantity(item.getQuantity());
+          itemResp.setUnitPrice(item.getUnitPrice());
+          itemResp.setTotalPrice(item.getTotalPrice());
+          return itemResp;
+        })
+        .collect(Collectors.toList()));
+    return response;
+  }
+
   private OrderResponse buildOrderResponse(Order order, UserServiceClient.UserResponse user,
       List<InventoryServiceClient.InventoryResponse> inventoryData,
       String paymentStatus) {
@@ -0,0 +1,74 @@
+package com.microservices.order.service;
+
+import com.microservices.order.dto.OrderStatusUpdate;
+import com.microservices.order.query.OrderStatusQuery;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.axonframework.messaging.responsetypes.ResponseTypes;
+import org.axonframework.queryhandling.QueryGateway;
+import org.axonframework.queryhandling.SubscriptionQueryResult;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+/**
+ * Status of saga-driven orders as a stream: the current status from the order projection, then
+ * every transition the projection applies, ending with the first terminal status.
+ */
+@Service
+@Slf4j
+public class OrderStatusService {
+
+  private final QueryGateway queryGateway;
+  private final Duration maxStreamDuration;
+  private final Duration maxWait;
+
+  public OrderStatusService(QueryGateway queryGateway,
+      @Value("${order.status-stream.max-duration:5m}") Duration maxStreamDuration,
+      @Value("${order.status-stream.max-wait:30s}") Duration maxWait) {
+    this.queryGateway = queryGateway;
+    this.maxStreamDuration = maxStreamDuration;
+    this.maxWait = maxWait;
+  }
+
+  public Flux<OrderStatusUpdate> streamStatus(String orderId) {
+    return streamStatus(orderId, maxStreamDuration);
+  }
+
+  /**
+   * Completes with the order's terminal status, or with the last status seen (empty if none)
+   * once {@code wait} has passed. No thread is held while waiting.
+   */
+  public CompletableFuture<Optional<OrderStatusUpdate>> awaitTerminalStatus(String orderId,
+      Duration wait) {
+    Duration bounded = wait.compareTo(maxWait) > 0 ? maxWait : wait;
+    return streamStatus(orderId, bounded)
+        .reduce((previous, latest) -> latest)
+        .map(Optional::of)
+        .defaultIfEmpty(Optional.empty())
+        .toFuture();
+  }
+
+  private Flux<OrderStatusUpdate> streamStatus(String orderId, Duration duration) {
+    return Flux.defer(() -> {
+      SubscriptionQueryResult<Optional<OrderStatusUpdate>, OrderStatusUpdate> result =
+          queryGateway.subscriptionQuery(new OrderStatusQuery(orderId),
+              ResponseTypes.optionalInstanceOf(OrderStatusUpdate.class),
+              ResponseTypes.instanceOf(OrderStatusUpdate.class));
+
+      return result.initialResult()
+          .flatMapMany(initial -> initial.map(Flux::just).orElseGet(Flux::empty))
+          .concatWith(result.updates())
+          // A transition applied while subscribing can arrive as initial result and update
+          .distinctUntilChanged(OrderStatusUpdate::getStatus)
+          .takeUntil(OrderStatusUpdate::isTerminal)
+          .take(duration)
+          .doFinally(signal -> {
+            log.debug("Status subscription for order {} ended: {}", orderId, signal);
+            result.close();
+          });
+    });
+  }
+}
@@ -0,0 +1,134 @@
+package com.microservices.order.service;
+
+import com.microservices.order.client.InventoryServiceClient;
+import com.microservices.order.client.UserServiceClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the remote legs of order creation (user lookup and inventory validation). In fan-out mode
+ * both legs run concurrently on virtual threads under a shared deadline; the first failure cancels
+ * the other leg. In serial mode they run one after the other on the request thread.
+ */
+@Component
+@Slf4j
+public class OrderValidationFanOut {
+
+  private static final String MODE_SERIAL = "serial";
+  private static final String MODE_FAN_OUT = "fan-out";
+
+  private final boolean enabled;
+  private final Duration timeout;
+  private final MeterRegistry meterRegistry;
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  public OrderValidationFanOut(
+      @Value("${order.create.fan-out.enabled:false}") boolean enabled,
+      @Value("${order.create.fan-out.timeout:3s}") Duration timeout,
+      MeterRegistry meterRegistry) {
+    this.enabled = enabled;
+    this.timeout = timeout;
+    this.meterRegistry = meterRegistry;
+    log.info("Order validation fan-out {} (timeout: {})", enabled ? "enabled" : "disabled",
+        timeout);
+  }
+
+  public ValidationResult validate(Supplier<UserServiceClient.UserResponse> userLeg,
+      Supplier<List<InventoryServiceClient.InventoryResponse>> inventoryLeg) {
+    String mode = enabled ? MODE_FAN_OUT : MODE_SERIAL;
+    Timer.Sample sample = Timer.start(meterRegistry);
+
+    try {
+      return enabled ? fanOut(userLeg, inventoryLeg) : serial(userLeg, inventoryLeg);
+    } finally {
+      sample.stop(Timer.builder("order.create.validation")
+          .description("Time spent in the remote legs of order creation")
+          .tag("mode", mode)
+          .register(meterRegistry));
+    }
+  }
+
+  private ValidationResult serial(Supplier<UserServiceClient.UserResponse> userLeg,
+      Supplier<List<InventoryServiceClient.InventoryResponse>> inventoryLeg) {
+    UserServiceClient.UserResponse user = timed("user", MODE_SERIAL, userLeg);
+    List<InventoryServiceClient.InventoryResponse> inventory =
+        timed("inventory", MODE_SERIAL, inventoryLeg);
+    return new ValidationResult(user, inventory);
+  }
+
+  @SuppressWarnings("unchecked")
+  private ValidationResult fanOut(Supplier<UserServiceClient.UserResponse> userLeg,
+      Supplier<List<InventoryServiceClient.InventoryResponse>> inventoryLeg) {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    Context context = Context.current();
+    CompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+
+    Future<Object> userFuture = completion.submit(
+        context.wrap(() -> timed("user", MODE_FAN_OUT, userLeg)));
+    Future<Object> inventoryFuture = completion.submit(
+        context.wrap(() -> timed("inventory", MODE_FAN_OUT, inventoryLeg)));
+
+    try {
+      for (int completed = 0; completed < 2; completed++) {
+        Future<Object> leg = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        if (leg == null) {
+          throw new RuntimeException(
+              "Order validation did not complete within " + timeout.toMillis() + "ms");
+        }
+        leg.get(); // surfaces the first failure immediately
+      }
+
+      return new ValidationResult(
+          (UserServiceClient.UserResponse) userFuture.get(),
+          (List<InventoryServiceClient.InventoryResponse>) inventoryFuture.get());
+
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new RuntimeException("Order validation failed: " + cause.getMessage(), cause);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException("Order validation interrupted", e);
+    } finally {
+      // No-op for legs that already finished; interrupts the one still running on failure
+      userFuture.cancel(true);
+      inventoryFuture.cancel(true);
+    }
+  }
+
+  private <T> T timed(String leg, String mode, Supplier<T> supplier) {
+    return Timer.builder("order.create.leg")
+        .description("Duration of a single remote leg of order creation")
+        .tag("leg", leg)
+        .tag("mode", mode)
+        .register(meterRegistry)
+        .record(supplier);
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  public record ValidationResult(UserServiceClient.UserResponse user,
+                                 List<InventoryServiceClient.InventoryResponse> inventory) {
+
+  }
+}
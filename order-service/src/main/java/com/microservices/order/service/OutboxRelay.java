@@ -0,0 +1,208 @@
+package com.microservices.order.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.microservices.order.dto.OrderEventDto;
+import com.microservices.order.entity.OutboxEvent;
+import com.microservices.order.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Drains the order outbox into Kafka. Each cycle locks a batch of unpublished rows, sends them
+ * without waiting in between so the producer can batch them, then marks the successful rows with
+ * one UPDATE and bumps the attempt count of the failed ones with another. Rows stay locked until
+ * the cycle commits, so several replicas can relay concurrently. A batch holds at most one row per
+ * order, the oldest one still pending, so retries cannot overtake an order's earlier events. Rows
+ * that used up their attempts are dead: they stop blocking their order and are counted apart.
+ * Published rows are purged once they are older than the retention period.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final KafkaTemplate<String, OrderEventDto> kafkaTemplate;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+
+  private final String orderEventsTopic;
+  private final int batchSize;
+  private final int maxBatches;
+  private final int maxAttempts;
+  private final Duration sendTimeout;
+  private final Duration retention;
+  private final int purgeBatchSize;
+
+  private final AtomicLong pending = new AtomicLong();
+  private final AtomicLong dead = new AtomicLong();
+  private final AtomicLong lagMillis = new AtomicLong();
+  private final DistributionSummary batchSizeSummary;
+  private final Counter published;
+  private final Counter failed;
+  private final Counter purged;
+
+  public OutboxRelay(OutboxEventRepository outboxEventRepository,
+      KafkaTemplate<String, OrderEventDto> kafkaTemplate,
+      ObjectMapper objectMapper,
+      TransactionTemplate transactionTemplate,
+      MeterRegistry meterRegistry,
+      @Value("${spring.kafka.topic.order-events}") String orderEventsTopic,
+      @Value("${order.outbox.relay.batch-size:100}") int batchSize,
+      @Value("${order.outbox.relay.max-batches-per-run:10}") int maxBatches,
+      @Value("${order.outbox.relay.max-attempts:10}") int maxAttempts,
+      @Value("${order.outbox.relay.send-timeout:10s}") Duration sendTimeout,
+      @Value("${order.outbox.retention.period:7d}") Duration retention,
+      @Value("${order.outbox.retention.batch-size:1000}") int purgeBatchSize) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.kafkaTemplate = kafkaTemplate;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = transactionTemplate;
+    this.orderEventsTopic = orderEventsTopic;
+    this.batchSize = batchSize;
+    this.maxBatches = maxBatches;
+    this.maxAttempts = maxAttempts;
+    this.sendTimeout = sendTimeout;
+    this.retention = retention;
+    this.purgeBatchSize = purgeBatchSize;
+
+    Gauge.builder("order.outbox.pending", pending, AtomicLong::get)
+        .description("Outbox rows waiting to be published")
+        .register(meterRegistry);
+    Gauge.builder("order.outbox.dead", dead, AtomicLong::get)
+        .description("Outbox rows that used up their attempts and are no longer relayed")
+        .register(meterRegistry);
+    Gauge.builder("order.outbox.lag", lagMillis, AtomicLong::get)
+        .description("Age of the oldest unpublished outbox row")
+        .baseUnit("milliseconds")
+        .register(meterRegistry);
+    this.batchSizeSummary = DistributionSummary.builder("order.outbox.batch.size")
+        .description("Rows relayed per outbox batch")
+        .register(meterRegistry);
+    this.published = Counter.builder("order.outbox.relayed")
+        .tag("result", "success")
+        .register(meterRegistry);
+    this.failed = Counter.builder("order.outbox.relayed")
+        .tag("result", "failure")
+        .register(meterRegistry);
+    this.purged = Counter.builder("order.outbox.purged")
+        .description("Published outbox rows deleted after the retention period")
+        .register(meterRegistry);
+  }
+
+  @Scheduled(fixedDelayString = "${order.outbox.relay.interval-ms:200}")
+  public void relay() {
+    try {
+      // Keep draining while batches come back full, bounded so one run cannot starve others
+      for (int batch = 0; batch < maxBatches; batch++) {
+        Integer relayed = transactionTemplate.execute(status -> relayBatch());
+        if (relayed == null || relayed < batchSize) {
+          break;
+        }
+      }
+      refreshBacklogMetrics();
+    } catch (Exception e) {
+      log.error("Outbox relay run failed: {}", e.getMessage(), e);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${order.outbox.retention.interval-ms:600000}")
+  public void purgePublished() {
+    LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+    try {
+      int deleted;
+      long total = 0;
+      do {
+        deleted = transactionTemplate.execute(
+            status -> outboxEventRepository.deletePublishedBefore(cutoff, purgeBatchSize));
+        total += deleted;
+      } while (deleted >= purgeBatchSize);
+
+      if (total > 0) {
+        purged.increment(total);
+        log.info("🗑️ Purged {} outbox rows published before {}", total, cutoff);
+      }
+    } catch (Exception e) {
+      log.error("Outbox purge failed: {}", e.getMessage(), e);
+    }
+  }
+
+  private int relayBatch() {
+    List<OutboxEvent> events = outboxEventRepository.lockNextBatch(batchSize, maxAttempts);
+    if (events.isEmpty()) {
+      return 0;
+    }
+
+    Map<Long, CompletableFuture<?>> sends = new LinkedHashMap<>();
+    List<Long> failedIds = new ArrayList<>();
+    String lastError = null;
+    for (OutboxEvent event : events) {
+      try {
+        OrderEventDto payload = objectMapper.readValue(event.getPayload(), OrderEventDto.class);
+        sends.put(event.getId(),
+            kafkaTemplate.send(orderEventsTopic, event.getAggregateId(), payload));
+      } catch (Exception e) {
+        log.error("Failed to send outbox event {}: {}", event.getId(), e.getMessage());
+        lastError = e.getMessage();
+        failedIds.add(event.getId());
+      }
+    }
+
+    long deadline = System.nanoTime() + sendTimeout.toNanos();
+    List<Long> publishedIds = new ArrayList<>();
+    for (Map.Entry<Long, CompletableFuture<?>> send : sends.entrySet()) {
+      try {
+        send.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        publishedIds.add(send.getKey());
+      } catch (ExecutionException | TimeoutException e) {
+        lastError = e.getCause() != null ? e.getCause().getMessage() : e.toString();
+        failedIds.add(send.getKey());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RuntimeException("Outbox relay interrupted", e);
+      }
+    }
+
+    if (!publishedIds.isEmpty()) {
+      outboxEventRepository.markPublished(publishedIds, LocalDateTime.now());
+      published.increment(publishedIds.size());
+    }
+    if (!failedIds.isEmpty()) {
+      outboxEventRepository.recordFailure(failedIds, lastError);
+      failed.increment(failedIds.size());
+      log.warn("Failed to relay {} outbox events, will retry: {}", failedIds.size(), lastError);
+    }
+
+    batchSizeSummary.record(events.size());
+    log.debug("Relayed outbox batch: {} published, {} failed", publishedIds.size(),
+        failedIds.size());
+    return events.size();
+  }
+
+  private void refreshBacklogMetrics() {
+    pending.set(outboxEventRepository.countPending(maxAttempts));
+    dead.set(outboxEventRepository.countDead(maxAttempts));
+    LocalDateTime oldest = outboxEventRepository.findOldestPendingCreatedAt(maxAttempts);
+    lagMillis.set(oldest != null
+        ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toMillis())
+        : 0);
+  }
+}
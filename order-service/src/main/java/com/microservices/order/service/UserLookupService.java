@@ -0,0 +1,79 @@
+package com.microservices.order.service;
+
+import com.microservices.order.cache.LoadedValueCache;
+import com.microservices.order.cache.MultiGetCache;
+import com.microservices.order.client.UserServiceClient;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * User lookups backed by the {@code users} cache. Single users go through {@code @Cacheable};
+ * many users at once take one multi-get against the cache, then one bulk user-service call for
+ * whatever was not cached.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class UserLookupService {
+
+  private static final String USERS_CACHE = "users";
+
+  private final CacheManager cacheManager;
+  private final UserServiceClient userClient;
+
+  // ✅ Cache user information; callers go through the proxy, so concurrent misses coalesce
+  @Cacheable(value = USERS_CACHE, key = "#userId", sync = true)
+  public UserServiceClient.UserResponse getUserWithCache(Long userId) {
+    log.info("🔍 Fetching user from service (cache miss) for userId: {}", userId);
+    UserServiceClient.UserResponse user = userClient.getUserById(userId);
+    log.info("✅ User {} retrieved from service and cached", userId);
+    return user;
+  }
+
+  public Map<Long, UserServiceClient.UserResponse> getUsersByIds(Collection<Long> userIds) {
+    Set<Long> ids = userIds.stream()
+        .filter(Objects::nonNull)
+        .collect(Collectors.toCollection(LinkedHashSet::new));
+    Map<Long, UserServiceClient.UserResponse> users = new HashMap<>();
+    if (ids.isEmpty()) {
+      return users;
+    }
+
+    Cache cache = cacheManager.getCache(USERS_CACHE);
+    if (cache instanceof MultiGetCache multiGetCache) {
+      multiGetCache.getAll(ids).forEach((key, value) ->
+          users.put((Long) key, (UserServiceClient.UserResponse) value));
+    }
+
+    List<Long> misses = ids.stream()
+        .filter(id -> !users.containsKey(id))
+        .collect(Collectors.toList());
+    if (misses.isEmpty()) {
+      log.info("✅ All {} users served from cache", ids.size());
+      return users;
+    }
+
+    log.info("🔍 Fetching {} of {} users from service (cache miss)", misses.size(), ids.size());
+    for (UserServiceClient.UserResponse user : userClient.getUsersByIds(misses)) {
+      users.put(user.getId(), user);
+      if (cache instanceof LoadedValueCache loadedValueCache) {
+        loadedValueCache.putLoaded(user.getId(), user);
+      } else if (cache != null) {
+        cache.put(user.getId(), user);
+      }
+    }
+    return users;
+  }
+}
@@ -1,4 +1,5 @@
 -- Drop tables in reverse order of dependencies
+DROP TABLE IF EXISTS released_orders CASCADE;
 DROP TABLE IF EXISTS stock_reservations CASCADE;
 DROP TABLE IF EXISTS inventory_transactions CASCADE;
 DROP TABLE IF EXISTS products CASCADE;
@@ -52,17 +53,25 @@ CREATE TABLE inventory_transactions (
 CREATE TABLE stock_reservations (
     id BIGSERIAL PRIMARY KEY,
     product_id BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
-    order_id BIGINT NOT NULL,
+    order_id BIGINT,
+    order_reference VARCHAR(64),
     quantity INTEGER NOT NULL,
     status VARCHAR(20) NOT NULL DEFAULT 'ACTIVE',
     created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     expires_at TIMESTAMP NOT NULL,
     fulfilled_at TIMESTAMP,
 
+    CONSTRAINT chk_reservation_order CHECK (order_id IS NOT NULL OR order_reference IS NOT NULL),
     CONSTRAINT chk_reservation_quantity CHECK (quantity > 0),
     CONSTRAINT chk_reservation_status CHECK (status IN ('ACTIVE', 'FULFILLED', 'CANCELLED', 'EXPIRED'))
 );
 
+-- Create released_orders table
+CREATE TABLE released_orders (
+    order_reference VARCHAR(64) PRIMARY KEY,
+    released_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Create indexes for better performance
 CREATE INDEX idx_products_sku ON products(sku);
 CREATE INDEX idx_products_category ON products(category);
@@ -76,14 +85,23 @@ CREATE INDEX idx_inventory_transactions_created_at ON inventory_transactions(cre
 
 CREATE INDEX idx_stock_reservations_product_id ON stock_reservations(product_id);
 CREATE INDEX idx_stock_reservations_order_id ON stock_reservations(order_id);
+-- One reservation per product of a saga order — also serves the lookups by order reference
+CREATE UNIQUE INDEX uq_stock_reservations_order_reference
+    ON stock_reservations(order_reference, product_id) WHERE order_reference IS NOT NULL;
 CREATE INDEX idx_stock_reservations_status ON stock_reservations(status);
 CREATE INDEX idx_stock_reservations_expires_at ON stock_reservations(expires_at);
 
+CREATE INDEX idx_released_orders_released_at ON released_orders(released_at);
+
 -- Add comments for documentation
 COMMENT ON TABLE products IS 'Product catalog and inventory information';
 COMMENT ON TABLE inventory_transactions IS 'Audit trail of all inventory changes';
 COMMENT ON TABLE stock_reservations IS 'Active stock reservations for pending orders';
 
+COMMENT ON TABLE released_orders IS 'Saga orders whose reservations were released — later reservations are refused';
+
+COMMENT ON COLUMN stock_reservations.order_reference IS 'Saga order id of bulk reservations';
+
 COMMENT ON COLUMN products.reserved_quantity IS 'Quantity reserved for pending orders';
 COMMENT ON COLUMN products.reorder_level IS 'Minimum stock level before reorder';
 COMMENT ON COLUMN products.reorder_quantity IS 'Quantity to order when restocking';
\ No newline at end of file
@@ -1,10 +1,23 @@
 -- Drop tables in reverse order of dependencies
+DROP TABLE IF EXISTS token_entry CASCADE;
+DROP TABLE IF EXISTS saga_association CASCADE;
+DROP TABLE IF EXISTS saga_entry CASCADE;
+DROP TABLE IF EXISTS order_view CASCADE;
+DROP TABLE IF EXISTS order_outbox CASCADE;
 DROP TABLE IF EXISTS order_items CASCADE;
 DROP TABLE IF EXISTS orders CASCADE;
+DROP SEQUENCE IF EXISTS order_outbox_id_seq;
+DROP SEQUENCE IF EXISTS order_items_id_seq;
+DROP SEQUENCE IF EXISTS orders_id_seq;
+
+-- Pooled id sequences — INCREMENT BY must match allocationSize on the entities
+CREATE SEQUENCE orders_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_id_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_outbox_id_seq START WITH 1 INCREMENT BY 50;
 
 -- Create orders table
 CREATE TABLE orders (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('orders_id_seq'),
     user_id BIGINT NOT NULL,
     total_amount DECIMAL(19,2) NOT NULL,
     status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'CONFIRMED', 'CANCELLED', 'COMPLETED')),
@@ -15,7 +28,7 @@ CREATE TABLE orders (
 
 -- Create order_items table
 CREATE TABLE order_items (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('order_items_id_seq'),
     order_id BIGINT NOT NULL,
     product_id BIGINT NOT NULL,
     quantity INTEGER NOT NULL CHECK (quantity > 0),
@@ -25,9 +38,68 @@ CREATE TABLE order_items (
     FOREIGN KEY (order_id) REFERENCES orders(id) ON DELETE CASCADE
 );
 
+-- Create order outbox table (drained into Kafka by OutboxRelay)
+CREATE TABLE order_outbox (
+    id BIGINT PRIMARY KEY DEFAULT nextval('order_outbox_id_seq'),
+    aggregate_id VARCHAR(64) NOT NULL,
+    event_type VARCHAR(50) NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    last_error TEXT
+);
+
+-- Create order view table (query model of saga-driven orders, maintained by OrderProjection)
+CREATE TABLE order_view (
+    order_id VARCHAR(64) PRIMARY KEY,
+    user_id BIGINT,
+    status VARCHAR(20) NOT NULL,
+    total_amount DECIMAL(19,2),
+    currency VARCHAR(3),
+    payment_method VARCHAR(50),
+    transaction_id VARCHAR(100),
+    status_reason TEXT,
+    items TEXT NOT NULL,
+    created_at TIMESTAMP,
+    updated_at TIMESTAMP,
+    last_sequence BIGINT NOT NULL
+);
+
+-- Create saga store tables (Axon JdbcSagaStore, see SagaStoreConfiguration)
+CREATE TABLE saga_entry (
+    saga_id VARCHAR(255) NOT NULL PRIMARY KEY,
+    revision VARCHAR(255),
+    saga_type VARCHAR(255),
+    serialized_saga BYTEA,
+    -- Not written by the saga store, so it keeps the saga's start time for the age metrics
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE saga_association (
+    id BIGSERIAL PRIMARY KEY,
+    association_key VARCHAR(255),
+    association_value VARCHAR(255),
+    saga_type VARCHAR(255),
+    saga_id VARCHAR(255)
+);
+
+-- Event processor positions (Axon JdbcTokenStore, see CustomAxonServerConfiguration)
+CREATE TABLE token_entry (
+    processor_name VARCHAR(255) NOT NULL,
+    segment INTEGER NOT NULL,
+    token BYTEA,
+    token_type VARCHAR(255),
+    timestamp VARCHAR(255),
+    owner VARCHAR(255),
+    PRIMARY KEY (processor_name, segment)
+);
+
 -- Create indexes for better performance
+-- Keyset pagination of a user's orders, newest first
 DROP INDEX IF EXISTS idx_orders_user_id;
-CREATE INDEX idx_orders_user_id ON orders(user_id);
+DROP INDEX IF EXISTS idx_orders_user_id_id;
+CREATE INDEX idx_orders_user_id_id ON orders(user_id, id DESC);
 
 DROP INDEX IF EXISTS idx_orders_status;
 CREATE INDEX idx_orders_status ON orders(status);
@@ -41,6 +113,30 @@ CREATE INDEX idx_order_items_order_id ON order_items(order_id);
 DROP INDEX IF EXISTS idx_order_items_product_id;
 CREATE INDEX idx_order_items_product_id ON order_items(product_id);
 
+DROP INDEX IF EXISTS idx_order_outbox_unpublished;
+CREATE INDEX idx_order_outbox_unpublished ON order_outbox(id) WHERE published_at IS NULL;
+
+-- Earlier pending rows of the same order, checked before relaying a row
+DROP INDEX IF EXISTS idx_order_outbox_pending_aggregate;
+CREATE INDEX idx_order_outbox_pending_aggregate
+    ON order_outbox(aggregate_id, id) WHERE published_at IS NULL;
+
+-- Retention purge of published rows
+DROP INDEX IF EXISTS idx_order_outbox_published_at;
+CREATE INDEX idx_order_outbox_published_at
+    ON order_outbox(published_at) WHERE published_at IS NOT NULL;
+
+DROP INDEX IF EXISTS idx_order_view_user_id;
+CREATE INDEX idx_order_view_user_id ON order_view(user_id);
+
+-- Saga lookup by association (orderId) and association cleanup by saga
+DROP INDEX IF EXISTS idx_saga_association_lookup;
+CREATE INDEX idx_saga_association_lookup
+    ON saga_association(saga_type, association_key, association_value);
+
+DROP INDEX IF EXISTS idx_saga_association_saga;
+CREATE INDEX idx_saga_association_saga ON saga_association(saga_id, saga_type);
+
 -- Drop tables if they exist for user-related schema
 DROP TABLE IF EXISTS user_addresses CASCADE;
 DROP TABLE IF EXISTS user_profiles CASCADE;
@@ -0,0 +1,57 @@
+package com.microservices.order.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.NoSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTrigger;
+import org.junit.jupiter.api.Test;
+
+class MeteredSnapshotTriggerDefinitionTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final MeteredSnapshotTriggerDefinition definition = new MeteredSnapshotTriggerDefinition(
+      NoSnapshotTriggerDefinition.INSTANCE, meterRegistry);
+
+  @Test
+  void loadRecordsTheSourcedEvents() {
+    SnapshotTrigger trigger = definition.prepareTrigger(OrderAggregate.class);
+    for (long sequence = 0; sequence < 3; sequence++) {
+      trigger.eventHandled(new GenericDomainEventMessage<>("OrderAggregate", "order-1",
+          sequence, "event " + sequence));
+    }
+    trigger.initializationFinished();
+
+    DistributionSummary events = meterRegistry.find("order.aggregate.load.events")
+        .tag("snapshot", "false")
+        .summary();
+    assertThat(events).isNotNull();
+    assertThat(events.count()).isEqualTo(1L);
+    assertThat(events.totalAmount()).isEqualTo(3.0);
+  }
+
+  @Test
+  void creationWithoutSourcedEventsIsNotRecorded() {
+    SnapshotTrigger trigger = definition.prepareTrigger(OrderAggregate.class);
+    trigger.initializationFinished();
+
+    assertThat(meterRegistry.find("order.aggregate.load").timer()).isNull();
+    assertThat(meterRegistry.find("order.aggregate.load.events").summary()).isNull();
+  }
+
+  @Test
+  void eventsAppliedAfterTheLoadAreNotRecorded() {
+    SnapshotTrigger trigger = definition.prepareTrigger(OrderAggregate.class);
+    trigger.eventHandled(new GenericDomainEventMessage<>("OrderAggregate", "order-1", 0L,
+        "created"));
+    trigger.initializationFinished();
+    trigger.eventHandled(new GenericDomainEventMessage<>("OrderAggregate", "order-1", 1L,
+        "confirmed"));
+    trigger.initializationFinished();
+
+    assertThat(meterRegistry.find("order.aggregate.load.events").summary().count())
+        .isEqualTo(1L);
+  }
+}
@@ -0,0 +1,122 @@
+package com.microservices.order.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microservices.common.commands.ConfirmOrderCommand;
+import com.microservices.common.commands.CreateOrderCommand;
+import com.microservices.common.commands.UpdateOrderItemsCommand;
+import com.microservices.common.commands.UpdateOrderStatusCommand;
+import com.microservices.order.benchmark.TimingHarness;
+import com.microservices.order.cache.CaffeineAxonCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Command handling and replay cost of OrderAggregate for orders with 20 items. Each command
+ * case creates an order, updates five of its items, moves it to PROCESSING and confirms it, with
+ * aggregates cached between commands as in the service; the replay case sources an order whose
+ * history holds 250 updates of all its items. The in-memory event store scans every stored event
+ * per read, so replays use a store of their own.
+ */
+class OrderAggregateCommandBenchmark {
+
+  private static final int ITEMS = 20;
+  private static final int UPDATES = 250;
+  private static final int OPERATIONS = 1_000;
+  private static final int LOADS = 200;
+
+  private final AtomicLong orderIds = new AtomicLong();
+
+  @Test
+  void handleCommandsAndReplay() {
+    CommandGateway commandGateway = commandGateway(
+        EventSourcingRepository.builder(OrderAggregate.class)
+            .eventStore(eventStore())
+            .cache(new CaffeineAxonCache("orderAggregates", 100_000, Duration.ofMinutes(10),
+                new SimpleMeterRegistry()))
+            .build());
+    TimingHarness.measure("create, update items, process, confirm", OPERATIONS, () -> {
+      String orderId = "order-" + orderIds.incrementAndGet();
+      commandGateway.sendAndWait(createOrder(orderId));
+      commandGateway.sendAndWait(updateItems(orderId, 5, 1));
+      commandGateway.sendAndWait(
+          new UpdateOrderStatusCommand(orderId, "PROCESSING", "paid", "benchmark"));
+      return commandGateway.sendAndWait(new ConfirmOrderCommand(orderId, "tx-1", "benchmark"));
+    });
+
+    EmbeddedEventStore eventStore = eventStore();
+    EventSourcingRepository<OrderAggregate> repository =
+        EventSourcingRepository.builder(OrderAggregate.class)
+            .eventStore(eventStore)
+            .build();
+    CommandGateway replayGateway = commandGateway(repository);
+    String replayed = "replayed-order";
+    replayGateway.sendAndWait(createOrder(replayed));
+    for (int i = 0; i < UPDATES; i++) {
+      replayGateway.sendAndWait(updateItems(replayed, ITEMS, i));
+    }
+    TimingHarness.Result replay = TimingHarness.measure(
+        "replay " + (UPDATES + 1) + " events", LOADS, () -> load(repository, replayed));
+
+    assertThat(replay.nanosPerOperation()).isPositive();
+    assertThat(eventStore.readEvents(replayed).asStream().count()).isEqualTo(UPDATES + 1L);
+  }
+
+  private static OrderAggregate load(EventSourcingRepository<OrderAggregate> repository,
+      String orderId) {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    try {
+      return repository.load(orderId).invoke(aggregate -> aggregate);
+    } finally {
+      unitOfWork.rollback();
+    }
+  }
+
+  private static CreateOrderCommand createOrder(String orderId) {
+    List<CreateOrderCommand.OrderItemRequest> items = new ArrayList<>(ITEMS);
+    for (long productId = 1; productId <= ITEMS; productId++) {
+      items.add(new CreateOrderCommand.OrderItemRequest(productId, 1, new BigDecimal("9.99")));
+    }
+    return new CreateOrderCommand(orderId, 1001L, items, "USD", "CREDIT_CARD");
+  }
+
+  // Alternates each touched item between one and two pieces
+  private static UpdateOrderItemsCommand updateItems(String orderId, int count, int round) {
+    List<UpdateOrderItemsCommand.OrderItemUpdate> updates = new ArrayList<>(count);
+    for (long productId = 1; productId <= count; productId++) {
+      updates.add(new UpdateOrderItemsCommand.OrderItemUpdate(productId,
+          1 + (round + 1) % 2, new BigDecimal("9.99"), "UPDATE"));
+    }
+    return new UpdateOrderItemsCommand(orderId, updates, "benchmark");
+  }
+
+  private static EmbeddedEventStore eventStore() {
+    return EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+  }
+
+  private static CommandGateway commandGateway(
+      EventSourcingRepository<OrderAggregate> repository) {
+    SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+    AggregateAnnotationCommandHandler.<OrderAggregate>builder()
+        .aggregateType(OrderAggregate.class)
+        .repository(repository)
+        .build()
+        .subscribe(commandBus);
+    return DefaultCommandGateway.builder().commandBus(commandBus).build();
+  }
+}
@@ -0,0 +1,111 @@
+package com.microservices.order.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microservices.common.events.OrderCreatedEvent;
+import com.microservices.common.events.OrderStatusUpdatedEvent;
+import com.microservices.order.benchmark.TimingHarness;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.AggregateSnapshotter;
+import org.axonframework.eventsourcing.EventCountSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.GenericAggregateFactory;
+import org.axonframework.eventsourcing.NoSnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.SnapshotTriggerDefinition;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Time to load an OrderAggregate with 1,000 events, sourced from the full stream and from a
+ * snapshot taken every 50 events. Events and snapshots stay in memory, so the numbers cover
+ * applying events, not deserializing them.
+ */
+class OrderAggregateLoadBenchmark {
+
+  private static final int EVENTS = 1_000;
+  private static final int SNAPSHOT_THRESHOLD = 50;
+  private static final int OPERATIONS = 500;
+  private static final String ORDER_ID = "order-1";
+
+  @Test
+  void loadWithAndWithoutSnapshots() {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    EventSourcingRepository<OrderAggregate> fullStream =
+        repository(NoSnapshotTriggerDefinition.INSTANCE, eventStoreWithHistory());
+    TimingHarness.measure("load 1000 events", OPERATIONS, () -> load(fullStream));
+
+    EmbeddedEventStore snapshotted = eventStoreWithHistory();
+    AggregateSnapshotter snapshotter = AggregateSnapshotter.builder()
+        .eventStore(snapshotted)
+        .aggregateFactories(new GenericAggregateFactory<>(OrderAggregate.class))
+        .build();
+    EventSourcingRepository<OrderAggregate> fromSnapshot = repository(
+        new MeteredSnapshotTriggerDefinition(
+            new EventCountSnapshotTriggerDefinition(snapshotter, SNAPSHOT_THRESHOLD),
+            meterRegistry),
+        snapshotted);
+    // The first load sources every event and snapshots the aggregate when it commits
+    DefaultUnitOfWork.startAndGet(null).executeWithResult(() -> fromSnapshot.load(ORDER_ID));
+    TimingHarness.measure("load 1000 events from snapshot", OPERATIONS,
+        () -> load(fromSnapshot));
+
+    DistributionSummary events = meterRegistry.find("order.aggregate.load.events")
+        .tag("snapshot", "true")
+        .summary();
+    assertThat(events).isNotNull();
+    assertThat(events.max()).isLessThan(SNAPSHOT_THRESHOLD);
+  }
+
+  private static OrderAggregate load(EventSourcingRepository<OrderAggregate> repository) {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    try {
+      return repository.load(ORDER_ID).invoke(aggregate -> aggregate);
+    } finally {
+      unitOfWork.rollback();
+    }
+  }
+
+  private static EventSourcingRepository<OrderAggregate> repository(
+      SnapshotTriggerDefinition snapshotTriggerDefinition, EmbeddedEventStore eventStore) {
+    return EventSourcingRepository.builder(OrderAggregate.class)
+        .eventStore(eventStore)
+        .snapshotTriggerDefinition(snapshotTriggerDefinition)
+        .build();
+  }
+
+  // One creation followed by status changes back and forth
+  private static EmbeddedEventStore eventStoreWithHistory() {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+
+    List<DomainEventMessage<?>> history = new ArrayList<>(EVENTS);
+    LocalDateTime now = LocalDateTime.now();
+    history.add(event(0, new OrderCreatedEvent(ORDER_ID, 1001L,
+        List.of(new OrderCreatedEvent.OrderItem(501L, 2, new BigDecimal("19.99"))),
+        new BigDecimal("39.98"), "USD", "CARD", now)));
+    for (int sequence = 1; sequence < EVENTS; sequence++) {
+      boolean toProcessing = sequence % 2 == 1;
+      history.add(event(sequence, new OrderStatusUpdatedEvent(ORDER_ID,
+          toProcessing ? "CREATED" : "PROCESSING",
+          toProcessing ? "PROCESSING" : "CREATED",
+          "benchmark", "system", now)));
+    }
+    eventStore.publish(history);
+    return eventStore;
+  }
+
+  private static DomainEventMessage<?> event(long sequence, Object payload) {
+    return new GenericDomainEventMessage<>("OrderAggregate", ORDER_ID, sequence, payload);
+  }
+}
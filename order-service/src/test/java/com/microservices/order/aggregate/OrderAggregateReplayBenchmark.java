@@ -0,0 +1,124 @@
+package com.microservices.order.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.microservices.common.events.OrderCreatedEvent;
+import com.microservices.common.events.OrderStatusUpdatedEvent;
+import com.microservices.order.benchmark.TimingHarness;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.axonframework.eventhandling.DomainEventMessage;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.messaging.unitofwork.DefaultUnitOfWork;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Replay throughput of OrderAggregate in events/sec with the replay logger quiet (the default)
+ * and with it logging every sourced event, as every load did before. Log lines are formatted but
+ * written to a discarding stream, so the difference is the cost of producing them.
+ */
+class OrderAggregateReplayBenchmark {
+
+  private static final int EVENTS = 1_000;
+  private static final int LOADS = 100;
+  private static final String ORDER_ID = "order-1";
+
+  @Test
+  void replayWithAndWithoutQuietMode() {
+    EventSourcingRepository<OrderAggregate> repository =
+        EventSourcingRepository.builder(OrderAggregate.class)
+            .eventStore(eventStoreWithHistory())
+            .build();
+
+    LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+    Logger replayLogger = context.getLogger("com.microservices.order.replay");
+    Level level = replayLogger.getLevel();
+    boolean additive = replayLogger.isAdditive();
+    OutputStreamAppender<ILoggingEvent> discarding = discardingAppender(context);
+
+    try {
+      replayLogger.setLevel(Level.INFO);
+      TimingHarness.Result quiet = TimingHarness.measure("replay " + EVENTS + " events, quiet",
+          LOADS, () -> load(repository));
+
+      replayLogger.addAppender(discarding);
+      replayLogger.setAdditive(false);
+      replayLogger.setLevel(Level.DEBUG);
+      TimingHarness.Result logged = TimingHarness.measure(
+          "replay " + EVENTS + " events, logging each", LOADS, () -> load(repository));
+
+      System.out.printf(Locale.ROOT,
+          "Replay throughput: quiet %.0f events/s, logging %.0f events/s%n",
+          EVENTS * quiet.operationsPerSecond(), EVENTS * logged.operationsPerSecond());
+      assertThat(quiet.nanosPerOperation()).isLessThan(logged.nanosPerOperation());
+    } finally {
+      replayLogger.detachAppender(discarding);
+      discarding.stop();
+      replayLogger.setAdditive(additive);
+      replayLogger.setLevel(level);
+    }
+  }
+
+  private static OrderAggregate load(EventSourcingRepository<OrderAggregate> repository) {
+    DefaultUnitOfWork<?> unitOfWork = DefaultUnitOfWork.startAndGet(null);
+    try {
+      return repository.load(ORDER_ID).invoke(aggregate -> aggregate);
+    } finally {
+      unitOfWork.rollback();
+    }
+  }
+
+  private static OutputStreamAppender<ILoggingEvent> discardingAppender(LoggerContext context) {
+    PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+    encoder.setContext(context);
+    encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss} - [%thread] %-5level %logger{36} - %msg%n");
+    encoder.start();
+
+    OutputStreamAppender<ILoggingEvent> appender = new OutputStreamAppender<>();
+    appender.setContext(context);
+    appender.setEncoder(encoder);
+    appender.setOutputStream(OutputStream.nullOutputStream());
+    appender.start();
+    return appender;
+  }
+
+  // One creation followed by status changes back and forth
+  private static EmbeddedEventStore eventStoreWithHistory() {
+    EmbeddedEventStore eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+
+    List<DomainEventMessage<?>> history = new ArrayList<>(EVENTS);
+    LocalDateTime now = LocalDateTime.now();
+    history.add(event(0, new OrderCreatedEvent(ORDER_ID, 1001L,
+        List.of(new OrderCreatedEvent.OrderItem(501L, 2, new BigDecimal("19.99"))),
+        new BigDecimal("39.98"), "USD", "CARD", now)));
+    for (int sequence = 1; sequence < EVENTS; sequence++) {
+      boolean toProcessing = sequence % 2 == 1;
+      history.add(event(sequence, new OrderStatusUpdatedEvent(ORDER_ID,
+          toProcessing ? "CREATED" : "PROCESSING",
+          toProcessing ? "PROCESSING" : "CREATED",
+          "benchmark", "system", now)));
+    }
+    eventStore.publish(history);
+    return eventStore;
+  }
+
+  private static DomainEventMessage<?> event(long sequence, Object payload) {
+    return new GenericDomainEventMessage<>("OrderAggregate", ORDER_ID, sequence, payload);
+  }
+}
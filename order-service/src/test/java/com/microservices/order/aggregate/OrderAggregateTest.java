@@ -0,0 +1,81 @@
+package com.microservices.order.aggregate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.microservices.common.commands.CreateOrderCommand;
+import com.microservices.common.commands.UpdateOrderItemsCommand;
+import com.microservices.common.events.OrderCreatedEvent;
+import com.microservices.common.events.OrderItemsUpdatedEvent;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.axonframework.commandhandling.SimpleCommandBus;
+import org.axonframework.commandhandling.gateway.CommandGateway;
+import org.axonframework.commandhandling.gateway.DefaultCommandGateway;
+import org.axonframework.eventhandling.GenericDomainEventMessage;
+import org.axonframework.eventsourcing.EventSourcingRepository;
+import org.axonframework.eventsourcing.eventstore.EmbeddedEventStore;
+import org.axonframework.eventsourcing.eventstore.inmemory.InMemoryEventStorageEngine;
+import org.axonframework.modelling.command.AggregateAnnotationCommandHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class OrderAggregateTest {
+
+  private static final BigDecimal PRICE = new BigDecimal("10.00");
+
+  private EmbeddedEventStore eventStore;
+  private CommandGateway commandGateway;
+
+  @BeforeEach
+  void setUp() {
+    eventStore = EmbeddedEventStore.builder()
+        .storageEngine(new InMemoryEventStorageEngine())
+        .build();
+    SimpleCommandBus commandBus = SimpleCommandBus.builder().build();
+    AggregateAnnotationCommandHandler.<OrderAggregate>builder()
+        .aggregateType(OrderAggregate.class)
+        .repository(EventSourcingRepository.builder(OrderAggregate.class)
+            .eventStore(eventStore)
+            .build())
+        .build()
+        .subscribe(commandBus);
+    commandGateway = DefaultCommandGateway.builder().commandBus(commandBus).build();
+  }
+
+  @Test
+  void orderListingAProductTwiceIsRejected() {
+    CreateOrderCommand command = new CreateOrderCommand("order-1", 1001L, List.of(
+        new CreateOrderCommand.OrderItemRequest(501L, 1, PRICE),
+        new CreateOrderCommand.OrderItemRequest(502L, 1, PRICE),
+        new CreateOrderCommand.OrderItemRequest(501L, 2, PRICE)), "USD", "CREDIT_CARD");
+
+    assertThatThrownBy(() -> commandGateway.sendAndWait(command))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("501");
+    assertThat(eventStore.readEvents("order-1").asStream().count()).isEqualTo(0L);
+  }
+
+  @Test
+  void productListedTwiceInAnOlderOrderIsMerged() {
+    eventStore.publish(new GenericDomainEventMessage<>("OrderAggregate", "order-2", 0L,
+        new OrderCreatedEvent("order-2", 1001L, List.of(
+            new OrderCreatedEvent.OrderItem(501L, 1, PRICE),
+            new OrderCreatedEvent.OrderItem(501L, 2, PRICE)),
+            new BigDecimal("30.00"), "USD", "CREDIT_CARD", LocalDateTime.now())));
+
+    // Removing the product takes both lines off the total
+    commandGateway.sendAndWait(new UpdateOrderItemsCommand("order-2", List.of(
+        new UpdateOrderItemsCommand.OrderItemUpdate(501L, 0, PRICE, "REMOVE"),
+        new UpdateOrderItemsCommand.OrderItemUpdate(502L, 1, PRICE, "ADD")), "test"));
+
+    OrderItemsUpdatedEvent updated = (OrderItemsUpdatedEvent) eventStore.readEvents("order-2")
+        .asStream()
+        .reduce((first, second) -> second)
+        .orElseThrow()
+        .getPayload();
+    assertThat(updated.getNewTotalAmount()).isEqualByComparingTo("10.00");
+    assertThat(updated.getItemChanges().get(0).getOldQuantity()).isEqualTo(3);
+  }
+}
@@ -0,0 +1,53 @@
+package com.microservices.order.aggregate;
+
+import static com.microservices.order.aggregate.OrderLifecycleStatus.CANCELLED;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.COMPLETED;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.CONFIRMED;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.CREATED;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.FAILED;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.PROCESSING;
+import static com.microservices.order.aggregate.OrderLifecycleStatus.REFUNDED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class OrderLifecycleStatusTest {
+
+  private static final Map<OrderLifecycleStatus, Set<OrderLifecycleStatus>> ALLOWED = Map.of(
+      CREATED, EnumSet.of(PROCESSING, CANCELLED, FAILED),
+      PROCESSING, EnumSet.of(CONFIRMED, FAILED, CANCELLED),
+      CONFIRMED, EnumSet.of(COMPLETED, REFUNDED, CANCELLED, FAILED),
+      COMPLETED, EnumSet.of(REFUNDED),
+      FAILED, EnumSet.of(PROCESSING, CANCELLED),
+      CANCELLED, EnumSet.noneOf(OrderLifecycleStatus.class),
+      REFUNDED, EnumSet.noneOf(OrderLifecycleStatus.class));
+
+  @Test
+  void everyStatusAllowsExactlyItsTransitions() {
+    for (OrderLifecycleStatus from : OrderLifecycleStatus.values()) {
+      for (OrderLifecycleStatus to : OrderLifecycleStatus.values()) {
+        assertThat(from.canTransitionTo(to))
+            .as("%s -> %s", from, to)
+            .isEqualTo(ALLOWED.get(from).contains(to));
+      }
+    }
+  }
+
+  @Test
+  void noStatusTransitionsToItself() {
+    for (OrderLifecycleStatus status : OrderLifecycleStatus.values()) {
+      assertThat(status.canTransitionTo(status)).as("%s -> %s", status, status).isFalse();
+    }
+  }
+
+  @Test
+  void cancelledAndRefundedOrdersAreFinal() {
+    for (OrderLifecycleStatus to : OrderLifecycleStatus.values()) {
+      assertThat(CANCELLED.canTransitionTo(to)).isFalse();
+      assertThat(REFUNDED.canTransitionTo(to)).isFalse();
+    }
+  }
+}
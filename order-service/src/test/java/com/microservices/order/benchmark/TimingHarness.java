@@ -0,0 +1,69 @@
+package com.microservices.order.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+/**
+ * Minimal timing harness for the {@code *Benchmark} test classes. Surefire's default includes do
+ * not match them, so they only run on request, e.g.
+ * {@code mvn test -Dtest=SmileRedisSerializerBenchmark}. Each case is warmed up, then timed over
+ * several rounds; the fastest round is reported as the one least disturbed by GC and JIT work,
+ * together with the bytes the calling thread allocated per operation.
+ */
+public final class TimingHarness {
+
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int MEASURED_ROUNDS = 10;
+
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  // Results are counted here so the JIT cannot drop the measured work
+  private static volatile long sink;
+
+  private TimingHarness() {
+  }
+
+  public static Result measure(String name, int operationsPerRound, Supplier<?> operation) {
+    for (int round = 0; round < WARMUP_ROUNDS; round++) {
+      runRound(operationsPerRound, operation);
+    }
+
+    long[] roundNanos = new long[MEASURED_ROUNDS];
+    long allocatedBefore = THREADS.getCurrentThreadAllocatedBytes();
+    for (int round = 0; round < MEASURED_ROUNDS; round++) {
+      roundNanos[round] = runRound(operationsPerRound, operation);
+    }
+    long allocated = THREADS.getCurrentThreadAllocatedBytes() - allocatedBefore;
+    Arrays.sort(roundNanos);
+
+    Result result = new Result(name,
+        (double) roundNanos[0] / operationsPerRound,
+        (double) allocated / ((long) MEASURED_ROUNDS * operationsPerRound));
+    System.out.printf(Locale.ROOT, "%-56s %12.1f ns/op %12.1f B/op%n", result.name(),
+        result.nanosPerOperation(), result.bytesPerOperation());
+    return result;
+  }
+
+  private static long runRound(int operations, Supplier<?> operation) {
+    long produced = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < operations; i++) {
+      if (operation.get() != null) {
+        produced++;
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    sink += produced;
+    return elapsed;
+  }
+
+  public record Result(String name, double nanosPerOperation, double bytesPerOperation) {
+
+    public double operationsPerSecond() {
+      return 1_000_000_000d / nanosPerOperation;
+    }
+  }
+}
@@ -0,0 +1,183 @@
+package com.microservices.order.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+class CoalescingCacheTest {
+
+  private static final int CALLERS = 8;
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final ConcurrentMapCache delegate = new ConcurrentMapCache("users", false);
+  private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentMissesShareOneLoad() throws Exception {
+    CoalescingCache cache = cache(0);
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch release = new CountDownLatch(1);
+    Callable<String> loader = () -> {
+      loads.incrementAndGet();
+      release.await();
+      return "user-1";
+    };
+
+    List<Future<String>> results = submitCallers(() -> cache.get(1L, loader));
+    // Every caller but the loading one joins the flight before it completes
+    awaitCount("order.cache.coalesced", CALLERS - 1);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("user-1");
+    }
+    assertThat(loads).hasValue(1);
+    assertThat(count("order.cache.loads")).isEqualTo(1.0);
+    assertThat(delegate.get(1L).get()).isEqualTo("user-1");
+  }
+
+  @Test
+  void failedLoadReachesEveryWaiterAndIsNotCached() throws Exception {
+    CoalescingCache cache = cache(0);
+    CountDownLatch release = new CountDownLatch(1);
+    Callable<String> loader = () -> {
+      release.await();
+      throw new IllegalStateException("user-service unavailable");
+    };
+
+    List<Future<String>> results = submitCallers(() -> cache.get(1L, loader));
+    awaitCount("order.cache.coalesced", CALLERS - 1);
+    release.countDown();
+
+    for (Future<String> result : results) {
+      assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(IllegalStateException.class);
+    }
+    assertThat(delegate.get(1L)).isNull();
+  }
+
+  @Test
+  void nullResultIsReturnedButNotCached() {
+    CoalescingCache cache = cache(0);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader = () -> {
+      loads.incrementAndGet();
+      return null;
+    };
+
+    assertThat(cache.get(1L, loader)).isNull();
+    assertThat(cache.get(1L, loader)).isNull();
+    assertThat(loads).hasValue(2);
+    assertThat(delegate.get(1L)).isNull();
+  }
+
+  @Test
+  void hitIsNotRefreshedWhenEarlyRefreshIsDisabled() {
+    CoalescingCache cache = cache(0);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader = () -> "user-1-v" + loads.incrementAndGet();
+
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1-v1");
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1-v1");
+    assertThat(loads).hasValue(1);
+    assertThat(count("order.cache.early.refresh")).isZero();
+  }
+
+  @Test
+  void hitWinningTheDrawIsRefreshedOnTheCallerThread() {
+    // An infinite beta makes every draw land past expiry once a load has taken any time
+    CoalescingCache cache = cache(Double.MAX_VALUE);
+    AtomicInteger loads = new AtomicInteger();
+    AtomicReference<Thread> loadingThread = new AtomicReference<>();
+    Callable<String> loader = () -> {
+      Thread.sleep(2);
+      loadingThread.set(Thread.currentThread());
+      return "user-1-v" + loads.incrementAndGet();
+    };
+
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1-v1");
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1-v2");
+
+    assertThat(loadingThread).hasValue(Thread.currentThread());
+    assertThat(delegate.get(1L).get()).isEqualTo("user-1-v2");
+    assertThat(count("order.cache.early.refresh")).isEqualTo(1.0);
+  }
+
+  @Test
+  void failedEarlyRefreshServesTheCachedValue() {
+    CoalescingCache cache = cache(Double.MAX_VALUE);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader = () -> {
+      Thread.sleep(2);
+      if (loads.incrementAndGet() > 1) {
+        throw new IllegalStateException("user-service unavailable");
+      }
+      return "user-1";
+    };
+
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1");
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1");
+    assertThat(loads).hasValue(2);
+    assertThat(delegate.get(1L).get()).isEqualTo("user-1");
+  }
+
+  @Test
+  void evictForgetsTheEntry() {
+    CoalescingCache cache = cache(0);
+    AtomicInteger loads = new AtomicInteger();
+    Callable<String> loader = () -> "user-1-v" + loads.incrementAndGet();
+
+    cache.get(1L, loader);
+    cache.evict(1L);
+
+    assertThat(cache.get(1L, loader)).isEqualTo("user-1-v2");
+  }
+
+  private CoalescingCache cache(double beta) {
+    return new CoalescingCache(delegate, Duration.ofMinutes(10), beta, 100, null,
+        meterRegistry);
+  }
+
+  private List<Future<String>> submitCallers(Callable<String> caller) {
+    List<Future<String>> results = new ArrayList<>();
+    for (int i = 0; i < CALLERS; i++) {
+      results.add(executor.submit(caller));
+    }
+    return results;
+  }
+
+  private double count(String name) {
+    return meterRegistry.get(name).counter().count();
+  }
+
+  private void awaitCount(String name, int expected) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (count(name) < expected && System.nanoTime() < deadline) {
+      Thread.sleep(5);
+    }
+    assertThat(count(name)).isEqualTo(expected);
+  }
+}
@@ -0,0 +1,65 @@
+package com.microservices.order.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microservices.order.benchmark.TimingHarness;
+import com.microservices.order.configuration.CacheConfig;
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+/**
+ * Payload size and encode/decode time of the Smile cache serializer against the type-annotated
+ * JSON it replaced, for an order with 20 items.
+ */
+class SmileRedisSerializerBenchmark {
+
+  private static final int OPERATIONS = 20_000;
+
+  private final GenericJackson2JsonRedisSerializer jsonSerializer =
+      new GenericJackson2JsonRedisSerializer(new CacheConfig().redisObjectMapper());
+  private final SmileRedisSerializer smileSerializer =
+      new SmileRedisSerializer(jsonSerializer, new SimpleMeterRegistry());
+
+  @Test
+  void compareWithTypeAnnotatedJson() {
+    OrderResponse order = orderWithItems(20);
+    byte[] json = jsonSerializer.serialize(order);
+    byte[] smile = smileSerializer.serialize(order);
+    System.out.printf("Payload size: json %d bytes, smile %d bytes%n", json.length, smile.length);
+
+    TimingHarness.measure("encode json", OPERATIONS, () -> jsonSerializer.serialize(order));
+    TimingHarness.measure("encode smile", OPERATIONS, () -> smileSerializer.serialize(order));
+    TimingHarness.measure("decode json", OPERATIONS, () -> jsonSerializer.deserialize(json));
+    TimingHarness.measure("decode smile", OPERATIONS, () -> smileSerializer.deserialize(smile));
+
+    assertThat(smile.length).isLessThan(json.length);
+    assertThat(smileSerializer.deserialize(smile)).isEqualTo(order);
+  }
+
+  private static OrderResponse orderWithItems(int count) {
+    List<OrderResponse.OrderItemResponse> items = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      OrderResponse.OrderItemResponse item = new OrderResponse.OrderItemResponse();
+      item.setProductId(500L + i);
+      item.setProductName("Product " + i);
+      item.setQuantity(1 + i % 3);
+      item.setUnitPrice(new BigDecimal("19.99"));
+      item.setTotalPrice(new BigDecimal("19.99").multiply(BigDecimal.valueOf(1 + i % 3)));
+      items.add(item);
+    }
+    return OrderResponse.builder()
+        .id("42")
+        .userId(1001L)
+        .userName("jdoe")
+        .totalAmount(new BigDecimal("799.60"))
+        .status("CONFIRMED")
+        .paymentStatus("COMPLETED")
+        .items(items)
+        .build();
+  }
+}
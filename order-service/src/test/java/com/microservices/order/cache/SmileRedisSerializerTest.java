@@ -0,0 +1,136 @@
+package com.microservices.order.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.microservices.order.client.UserServiceClient;
+import com.microservices.order.configuration.CacheConfig;
+import com.microservices.order.dto.OrderConnection;
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+class SmileRedisSerializerTest {
+
+  private final GenericJackson2JsonRedisSerializer jsonSerializer =
+      new GenericJackson2JsonRedisSerializer(new CacheConfig().redisObjectMapper());
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SmileRedisSerializer serializer =
+      new SmileRedisSerializer(jsonSerializer, meterRegistry);
+
+  @Test
+  void orderIsWrittenBehindHeaderWithoutClassNames() {
+    OrderResponse order = order("42");
+
+    byte[] bytes = serializer.serialize(order);
+
+    assertThat(bytes[0]).isEqualTo(SmileRedisSerializer.MAGIC);
+    assertThat(bytes[1]).isEqualTo(SmileRedisSerializer.VERSION);
+    assertThat(bytes[2]).isEqualTo((byte) 1);
+    assertThat(new String(bytes, StandardCharsets.ISO_8859_1)).doesNotContain("com.microservices");
+    assertThat(serializer.deserialize(bytes)).isEqualTo(order);
+  }
+
+  @Test
+  void knownCacheTypesRoundTrip() {
+    UserServiceClient.UserResponse user = new UserServiceClient.UserResponse();
+    user.setId(7L);
+    user.setUsername("jdoe");
+    user.setEmail("jdoe@example.com");
+    List<OrderResponse> orders = List.of(order("1"), order("2"));
+    OrderConnection page = OrderConnection.builder()
+        .edges(List.of(new OrderConnection.OrderEdge("b3JkZXI6MQ==", order("1"))))
+        .pageInfo(new OrderConnection.PageInfo(true, false, "b3JkZXI6MQ==", "b3JkZXI6MQ=="))
+        .build();
+
+    assertThat(serializer.deserialize(serializer.serialize(user))).isEqualTo(user);
+    assertThat(serializer.deserialize(serializer.serialize(orders))).isEqualTo(orders);
+    assertThat(serializer.deserialize(serializer.serialize(page))).isEqualTo(page);
+  }
+
+  @Test
+  void otherTypesAreWrittenByTheLegacySerializer() {
+    Map<String, Object> value = new LinkedHashMap<>();
+    value.put("status", "PENDING");
+
+    byte[] bytes = serializer.serialize(value);
+
+    assertThat(bytes[0]).isNotEqualTo(SmileRedisSerializer.MAGIC);
+    assertThat(serializer.deserialize(bytes)).isEqualTo(value);
+  }
+
+  @Test
+  void entriesWrittenAsJsonByOlderReplicasStayReadable() {
+    OrderResponse order = order("42");
+
+    byte[] legacyBytes = jsonSerializer.serialize(order);
+
+    assertThat(serializer.deserialize(legacyBytes)).isEqualTo(order);
+  }
+
+  @Test
+  void unsupportedHeaderIsTreatedAsCacheMiss() {
+    byte[] bytes = serializer.serialize(order("42"));
+
+    byte[] newerVersion = bytes.clone();
+    newerVersion[1] = (byte) (SmileRedisSerializer.VERSION + 1);
+    byte[] unknownType = bytes.clone();
+    unknownType[2] = 99;
+
+    assertThat(serializer.deserialize(newerVersion)).isNull();
+    assertThat(serializer.deserialize(unknownType)).isNull();
+    assertThat(serializer.deserialize(new byte[] {SmileRedisSerializer.MAGIC})).isNull();
+  }
+
+  @Test
+  void nullAndEmptyValues() {
+    assertThat(serializer.serialize(null)).isEmpty();
+    assertThat(serializer.deserialize(null)).isNull();
+    assertThat(serializer.deserialize(new byte[0])).isNull();
+  }
+
+  @Test
+  void legacyJsonNamingForeignTypesIsRejected() {
+    byte[] bytes = "{\"@class\":\"java.util.TreeMap\",\"status\":\"PENDING\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    assertThatThrownBy(() -> serializer.deserialize(bytes))
+        .isInstanceOf(SerializationException.class)
+        .hasMessageContaining("denied resolution");
+  }
+
+  @Test
+  void payloadSizesAreRecordedPerFormat() {
+    serializer.serialize(order("42"));
+    serializer.serialize(new LinkedHashMap<>(Map.of("status", "PENDING")));
+
+    assertThat(meterRegistry.get("order.cache.payload.size").tag("format", "smile")
+        .summary().count()).isEqualTo(1);
+    assertThat(meterRegistry.get("order.cache.payload.size").tag("format", "json")
+        .summary().count()).isEqualTo(1);
+  }
+
+  static OrderResponse order(String id) {
+    OrderResponse.OrderItemResponse item = new OrderResponse.OrderItemResponse();
+    item.setProductId(501L);
+    item.setProductName("Keyboard");
+    item.setQuantity(2);
+    item.setUnitPrice(new BigDecimal("100.00"));
+    item.setTotalPrice(new BigDecimal("200.00"));
+    return OrderResponse.builder()
+        .id(id)
+        .userId(1001L)
+        .userName("jdoe")
+        .totalAmount(new BigDecimal("200.00"))
+        .status("CONFIRMED")
+        .items(List.of(item))
+        .build();
+  }
+}
@@ -0,0 +1,143 @@
+package com.microservices.order.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.microservices.order.dto.OrderResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+@Testcontainers(disabledWithoutDocker = true)
+class UserOrdersCacheTest {
+
+  private static final long USER_ID = 1001L;
+  private static final Duration TTL = Duration.ofMinutes(10);
+
+  @Container
+  private static final GenericContainer<?> REDIS =
+      new GenericContainer<>("redis:7-alpine").withExposedPorts(6379);
+
+  private static LettuceConnectionFactory connectionFactory;
+
+  private UserOrdersCache cache;
+
+  @BeforeAll
+  static void connect() {
+    connectionFactory = new LettuceConnectionFactory(REDIS.getHost(),
+        REDIS.getMappedPort(6379));
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      connection.serverCommands().flushAll();
+    }
+    cache = new UserOrdersCache(connectionFactory, new GenericJackson2JsonRedisSerializer(),
+        new SimpleMeterRegistry(), TTL);
+  }
+
+  @Test
+  void storedPageIsServedWithOrdersPrependedAfterIt() {
+    long version = cache.version(USER_ID);
+    cache.storePage(USER_ID, version, null, List.of(order(1, "CONFIRMED")), false);
+    cache.prepend(USER_ID, order(2, "PENDING"));
+
+    assertThat(cache.readPage(USER_ID, 20, null)).hasValueSatisfying(page -> {
+      assertThat(page.orders()).extracting(OrderResponse::getId).containsExactly("2", "1");
+      assertThat(page.hasNextPage()).isFalse();
+    });
+  }
+
+  @Test
+  void pageLoadedBeforeAnOrderWasCreatedIsNotStored() {
+    // Reader misses and loads order 1 from the database
+    long version = cache.version(USER_ID);
+    // Order 2 commits; there is no listing yet to prepend it to
+    cache.prepend(USER_ID, order(2, "PENDING"));
+    // The reader's page, which lacks order 2, arrives last
+    cache.storePage(USER_ID, version, null, List.of(order(1, "CONFIRMED")), false);
+
+    assertThat(cache.readPage(USER_ID, 20, null)).isEmpty();
+  }
+
+  @Test
+  void pageLoadedBeforeAStatusChangeIsNotStored() {
+    long version = cache.version(USER_ID);
+    cache.patchStatus(USER_ID, 1L, "CANCELLED");
+    cache.storePage(USER_ID, version, null, List.of(order(1, "CONFIRMED")), false);
+
+    assertThat(cache.readPage(USER_ID, 20, null)).isEmpty();
+  }
+
+  @Test
+  void prependKeepsTheListingLifetime() {
+    cache.storePage(USER_ID, cache.version(USER_ID), null, List.of(order(1, "CONFIRMED")),
+        false);
+    StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+    String floorKey = "order-service:userOrders:{" + USER_ID + "}:floor";
+    String indexKey = "order-service:userOrders:{" + USER_ID + "}:index";
+    redis.expire(floorKey, Duration.ofSeconds(30));
+    redis.expire(indexKey, Duration.ofSeconds(30));
+
+    cache.prepend(USER_ID, order(2, "PENDING"));
+
+    assertThat(redis.getExpire(floorKey, TimeUnit.SECONDS)).isLessThanOrEqualTo(30L);
+    assertThat(redis.getExpire(indexKey, TimeUnit.SECONDS)).isLessThanOrEqualTo(30L);
+  }
+
+  @Test
+  void patchStatusUpdatesTheOrderAndKeepsTheListingLifetime() {
+    cache.storePage(USER_ID, cache.version(USER_ID), null, List.of(order(1, "CONFIRMED")),
+        false);
+    StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+    String ordersKey = "order-service:userOrders:{" + USER_ID + "}:orders";
+    redis.expire(ordersKey, Duration.ofSeconds(30));
+
+    cache.patchStatus(USER_ID, 1L, "CANCELLED");
+
+    assertThat(redis.getExpire(ordersKey, TimeUnit.SECONDS)).isBetween(1L, 30L);
+    assertThat(cache.readPage(USER_ID, 20, null)).hasValueSatisfying(page ->
+        assertThat(page.orders()).extracting(OrderResponse::getStatus)
+            .containsExactly("CANCELLED"));
+  }
+
+  @Test
+  void patchStatusDoesNotRecreateAnExpiredListing() {
+    cache.storePage(USER_ID, cache.version(USER_ID), null, List.of(order(1, "CONFIRMED")),
+        false);
+    StringRedisTemplate redis = new StringRedisTemplate(connectionFactory);
+    String ordersKey = "order-service:userOrders:{" + USER_ID + "}:orders";
+    redis.delete(ordersKey);
+
+    cache.patchStatus(USER_ID, 1L, "CANCELLED");
+
+    assertThat(redis.hasKey(ordersKey)).isFalse();
+  }
+
+  private static OrderResponse order(long id, String status) {
+    OrderResponse order = new OrderResponse();
+    order.setId(String.valueOf(id));
+    order.setUserId(USER_ID);
+    order.setStatus(status);
+    return order;
+  }
+}
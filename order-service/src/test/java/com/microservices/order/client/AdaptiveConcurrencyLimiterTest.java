@@ -0,0 +1,114 @@
+package com.microservices.order.client;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final Duration THRESHOLD = Duration.ofMillis(100);
+  private static final long FAST = Duration.ofMillis(10).toNanos();
+  private static final long SLOW = Duration.ofMillis(500).toNanos();
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+  @AfterEach
+  void shutDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void callersOverTheLimitTimeOut() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10);
+
+    assertThat(limiter.tryAcquire(Duration.ZERO)).isTrue();
+    assertThat(limiter.tryAcquire(Duration.ZERO)).isTrue();
+    assertThat(limiter.tryAcquire(Duration.ofMillis(20))).isFalse();
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+  }
+
+  @Test
+  void releasedSlotWakesWaitingCaller() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10);
+    assertThat(limiter.tryAcquire(Duration.ZERO)).isTrue();
+
+    Future<Boolean> waiter = executor.submit(() -> limiter.tryAcquire(Duration.ofSeconds(5)));
+    Thread.sleep(50);
+    limiter.release(FAST, false);
+
+    assertThat(waiter.get(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(limiter.getInFlight()).isEqualTo(1);
+  }
+
+  @Test
+  void fastCallsRaiseTheLimitWhileItIsInUse() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 100);
+    for (int i = 0; i < 4; i++) {
+      limiter.tryAcquire(Duration.ZERO);
+    }
+
+    // About one more slot per round trip of the whole limit
+    for (int i = 0; i < 20; i++) {
+      limiter.release(FAST, false);
+      limiter.tryAcquire(Duration.ZERO);
+    }
+
+    assertThat(limiter.getLimit()).isBetween(7, 9);
+  }
+
+  @Test
+  void idleLimitDoesNotGrow() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(10, 1, 100);
+
+    for (int i = 0; i < 50; i++) {
+      limiter.tryAcquire(Duration.ZERO);
+      limiter.release(FAST, false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void slowAndDroppedCallsBackOffDownToTheMinimum() throws Exception {
+    AdaptiveConcurrencyLimiter limiter = limiter(16, 3, 100);
+
+    limiter.tryAcquire(Duration.ZERO);
+    limiter.release(SLOW, false);
+    assertThat(limiter.getLimit()).isEqualTo(8);
+
+    limiter.tryAcquire(Duration.ZERO);
+    limiter.release(FAST, true);
+    assertThat(limiter.getLimit()).isEqualTo(4);
+
+    limiter.tryAcquire(Duration.ZERO);
+    limiter.release(FAST, true);
+    assertThat(limiter.getLimit()).isEqualTo(3);
+  }
+
+  @Test
+  void limitStaysWithinItsBounds() throws Exception {
+    assertThat(limiter(500, 1, 20).getLimit()).isEqualTo(20);
+    assertThat(limiter(0, 2, 20).getLimit()).isEqualTo(2);
+
+    AdaptiveConcurrencyLimiter limiter = limiter(20, 1, 20);
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire(Duration.ZERO);
+    }
+    for (int i = 0; i < 100; i++) {
+      limiter.release(FAST, false);
+      limiter.tryAcquire(Duration.ZERO);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(20);
+  }
+
+  private static AdaptiveConcurrencyLimiter limiter(int initial, int min, int max) {
+    return new AdaptiveConcurrencyLimiter(initial, min, max, THRESHOLD, 0.5);
+  }
+}
@@ -0,0 +1,120 @@
+package com.microservices.order.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.microservices.order.cache.UserOrdersCache;
+import com.microservices.order.client.PaymentServiceClient;
+import com.microservices.order.dto.OrderConnection;
+import com.microservices.order.entity.Order;
+import com.microservices.order.service.InventoryService;
+import com.microservices.order.service.OrderEventPublisher;
+import com.microservices.order.service.OrderService;
+import com.microservices.order.service.OrderValidationFanOut;
+import com.microservices.order.service.UserLookupService;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.persistence.EntityManagerFactory;
+import org.axonframework.queryhandling.QueryGateway;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Listing a user's orders must cost the same number of statements for any page size: one for
+ * the page of summaries and one for the items of all its orders.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+// schema.sql is PostgreSQL-only; Hibernate creates the tables from the entities
+@TestPropertySource(properties = "spring.sql.init.mode=never")
+class OrderPageStatementCountTest {
+
+  private static final long USER_ID = 2001L;
+  private static final int ORDER_COUNT = 30;
+  private static final int ITEMS_PER_ORDER = 2;
+
+  @Autowired
+  private OrderRepository orderRepository;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  private OrderService orderService;
+  private Statistics statistics;
+
+  @BeforeEach
+  void setUp() {
+    for (long orderId = 1; orderId <= ORDER_COUNT; orderId++) {
+      jdbcTemplate.update("INSERT INTO orders (id, user_id, total_amount, status, created_at)"
+          + " VALUES (?, ?, 30.00, 'CONFIRMED', CURRENT_TIMESTAMP)", orderId, USER_ID);
+      for (int item = 0; item < ITEMS_PER_ORDER; item++) {
+        jdbcTemplate.update("INSERT INTO order_items"
+                + " (id, order_id, product_id, quantity, unit_price, total_price)"
+                + " VALUES (?, ?, ?, 1, 15.00, 15.00)",
+            orderId * ITEMS_PER_ORDER + item, orderId, 500L + item);
+      }
+    }
+
+    // Only the repository is real; caches and downstream clients stay out of the way
+    orderService = new OrderService(orderRepository, mock(InventoryService.class),
+        mock(PaymentServiceClient.class), mock(Tracer.class), mock(OrderValidationFanOut.class),
+        mock(OrderEventPublisher.class), mock(UserOrdersCache.class), mock(QueryGateway.class),
+        mock(UserLookupService.class));
+
+    statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    assertThat(statistics.isStatisticsEnabled()).isTrue();
+  }
+
+  @Test
+  void firstPageTakesTwoStatementsWhateverItsSize() {
+    for (int pageSize : new int[] {1, 5, 25}) {
+      statistics.clear();
+
+      OrderConnection page = orderService.getOrdersByUserId(USER_ID, pageSize, null);
+
+      assertThat(page.getEdges()).hasSize(pageSize);
+      assertThat(page.getEdges())
+          .allSatisfy(edge -> assertThat(edge.getNode().getItems()).hasSize(ITEMS_PER_ORDER));
+      assertThat(statistics.getPrepareStatementCount())
+          .as("statements for a page of %d orders", pageSize)
+          .isEqualTo(2);
+    }
+  }
+
+  @Test
+  void followingPagesTakeTwoStatementsWhateverTheirSize() {
+    for (int pageSize : new int[] {1, 5, 25}) {
+      String after = orderService.getOrdersByUserId(USER_ID, 1, null)
+          .getPageInfo().getEndCursor();
+      statistics.clear();
+
+      OrderConnection page = orderService.getOrdersByUserId(USER_ID, pageSize, after);
+
+      assertThat(page.getEdges()).hasSize(pageSize);
+      assertThat(page.getEdges())
+          .allSatisfy(edge -> assertThat(edge.getNode().getItems()).hasSize(ITEMS_PER_ORDER));
+      assertThat(statistics.getPrepareStatementCount())
+          .as("statements for a following page of %d orders", pageSize)
+          .isEqualTo(2);
+    }
+  }
+
+  // Replaces the application configuration, so only JPA is started
+  @Configuration
+  @EntityScan(basePackageClasses = Order.class)
+  @EnableJpaRepositories(basePackageClasses = OrderRepository.class)
+  static class JpaConfiguration {
+  }
+}
@@ -0,0 +1,46 @@
+package com.microservices.order.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class OrderServiceCursorTest {
+
+  @Test
+  void cursorRoundTripsOrderIds() {
+    for (long orderId : new long[] {0L, 1L, 42L, 9_876_543_210L, Long.MAX_VALUE}) {
+      assertThat(OrderService.decodeCursor(OrderService.encodeCursor(orderId)))
+          .isEqualTo(orderId);
+    }
+  }
+
+  @Test
+  void cursorIsOpaqueAndUrlSafe() {
+    String cursor = OrderService.encodeCursor(Long.MAX_VALUE);
+
+    assertThat(cursor).doesNotContain("+");
+    assertThat(cursor).doesNotContain("/");
+    assertThat(cursor).doesNotContain("=");
+    assertThat(cursor).doesNotContain(String.valueOf(Long.MAX_VALUE));
+  }
+
+  @Test
+  void cursorsNotProducedByTheListingAreRejected() {
+    assertThatThrownBy(() -> OrderService.decodeCursor("not a cursor!"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> OrderService.decodeCursor(encode("user:42")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> OrderService.decodeCursor(encode("order:abc")))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> OrderService.decodeCursor(""))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static String encode(String raw) {
+    return Base64.getUrlEncoder().withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -51,6 +51,14 @@ public class UserController {
     return ResponseEntity.ok(user);
   }
 
+  // Unknown IDs are left out of the response
+  @GetMapping("/batch")
+  public ResponseEntity<List<UserResponse>> getUsersByIds(@RequestParam List<Long> ids) {
+    log.info("Fetching {} users in batch", ids.size());
+    List<UserResponse> users = userService.getUsersByIds(ids);
+    return ResponseEntity.ok(users);
+  }
+
   @GetMapping("/username/{username}")
   public ResponseEntity<UserResponse> getUserByUsername(@PathVariable String username) {
     log.info("Fetching user with username: {}", username);
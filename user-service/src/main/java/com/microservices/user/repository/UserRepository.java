@@ -1,6 +1,7 @@
 package com.microservices.user.repository;
 
 import com.microservices.user.entity.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -27,6 +28,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
   @Query("SELECT u FROM User u LEFT JOIN FETCH u.profile LEFT JOIN FETCH u.addresses WHERE u.username = :username")
   Optional<User> findByUsernameWithDetails(@Param("username") String username);
 
+  @Query("SELECT DISTINCT u FROM User u LEFT JOIN FETCH u.profile LEFT JOIN FETCH u.addresses "
+      + "WHERE u.id IN :ids")
+  List<User> findAllByIdInWithDetails(@Param("ids") Collection<Long> ids);
+
   @Query("SELECT u FROM User u WHERE u.firstName LIKE %:name% OR u.lastName LIKE %:name%")
   List<User> findByNameContaining(@Param("name") String name);
 }
\ No newline at end of file
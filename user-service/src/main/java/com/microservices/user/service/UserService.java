@@ -73,6 +73,14 @@ public class UserService {
     return mapToUserResponse(user);
   }
 
+  @Transactional(readOnly = true)
+  public List<UserResponse> getUsersByIds(List<Long> ids) {
+    log.info("Fetching {} users by ID in batch", ids.size());
+    return userRepository.findAllByIdInWithDetails(ids).stream()
+        .map(this::mapToUserResponse)
+        .collect(Collectors.toList());
+  }
+
   @Transactional(readOnly = true)
   public UserResponse getUserByUsername(String username) {
     log.info("Fetching user with username: {}", username);